@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans;
+
+import java.util.Arrays;
+
+import org.nibeans.internal.BeanProvider;
+
+/**
+ * A scope of bean instances that are released together. Acquire beans through the arena while processing a
+ * batch, then release all of them in one step:
+ * 
+ * <pre>
+ * try (BeanArena arena = new BeanArena()) {
+ * 	Car car = arena.create(Car.class);
+ * 	...
+ * }
+ * </pre>
+ * 
+ * Beans of pooled interfaces return to the pools of their providers, other beans are left to the garbage
+ * collector. An arena is not thread safe, and can be used again after its beans are released.
+ * 
+ * @author Tareq Sharafy (tareq.sharafy@sap.com)
+ *
+ */
+public final class BeanArena implements AutoCloseable {
+
+	private BeanProvider<?>[] providers = new BeanProvider<?>[16];
+	private Object[] beans = new Object[16];
+	private int size;
+
+	/**
+	 * Acquire a bean of the given interface.
+	 * 
+	 * @return The bean, or null if no provider was registered for the given interface.
+	 */
+	public <T> T create(Class<T> beanInterface) {
+		BeanProvider<T> provider = BeanFactory.getInstance().providerFor(beanInterface);
+		return provider != null ? acquire(provider) : null;
+	}
+
+	/**
+	 * Acquire a bean from the given provider.
+	 */
+	public <T> T acquire(BeanProvider<T> provider) {
+		T bean = provider.acquire();
+		if (size == beans.length) {
+			providers = Arrays.copyOf(providers, size * 2);
+			beans = Arrays.copyOf(beans, size * 2);
+		}
+		providers[size] = provider;
+		beans[size] = bean;
+		++size;
+		return bean;
+	}
+
+	/**
+	 * The number of beans acquired since the last release.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Release all the beans acquired through this arena. They must not be used afterwards.
+	 */
+	@SuppressWarnings("unchecked")
+	public void releaseAll() {
+		for (int i = 0; i < size; ++i) {
+			((BeanProvider<Object>) providers[i]).release(beans[i]);
+			providers[i] = null;
+			beans[i] = null;
+		}
+		size = 0;
+	}
+
+	@Override
+	public void close() {
+		releaseAll();
+	}
+
+}
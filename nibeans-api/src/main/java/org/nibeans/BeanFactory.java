@@ -15,11 +15,29 @@
  */
 package org.nibeans;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.nibeans.internal.BeanProvider;
 import org.nibeans.internal.BeanProviderRegistry;
@@ -30,24 +48,57 @@ import org.slf4j.LoggerFactory;
 /**
  * Manager bean implementations and creates instances of them, sparing interaction with the underlying
  * implementation classes.
+ * <p/>
+ * 
+ * This class is thread safe. Providers are collected lazily from the class loader of each requested bean
+ * interface, and from the context class loader of the requesting thread, so beans defined in different class
+ * loaders are all reachable through the single instance. The provider of a generated bean is found through the
+ * index of its class loader and loaded on the first request of its interface, other providers are collected
+ * from all the {@link BeanProviderService} services of the class loader. The providers are held only as long as
+ * their class loaders.
+ * <p/>
+ * 
+ * The outcome of each lookup, including a miss, is remembered per interface and per context class loader, so a
+ * miss costs a single lookup. A provider that becomes visible later, through new resources of a class loader that
+ * was already looked up, is not found; it is found only when requested with another context class loader.
  * 
  * @author Tareq Sharafy (tareq.sharafy@sap.com)
  *
  */
 public final class BeanFactory {
 	private static final Logger LOG = LoggerFactory.getLogger(BeanFactory.class);
-	private static BeanFactory instance;
-	// All the registered providers
-	private final Map<Class<?>, BeanProvider<?>> providers = new HashMap<>();
+	private static final AtomicReference<BeanFactory> INSTANCE = new AtomicReference<>();
+	// Per-interface resolution of the providers, kept by the interface class itself and computed only once
+	private final ClassValue<Resolution> resolutions = new ClassValue<Resolution>() {
+		@Override
+		protected Resolution computeValue(Class<?> beanInterface) {
+			return new Resolution(findProvider(beanInterface, interfaceLoader(beanInterface)));
+		}
+	};
+	// Keeps the registered providers alive as long as their own classes, all other references to them are weak so
+	// that no provider pins its class loader
+	private final ClassValue<Set<BeanProvider<?>>> anchors = new ClassValue<Set<BeanProvider<?>>>() {
+		@Override
+		protected Set<BeanProvider<?>> computeValue(Class<?> providerClass) {
+			return Collections.newSetFromMap(new ConcurrentHashMap<BeanProvider<?>, Boolean>());
+		}
+	};
+	// The index and the providers of each class loader, guarded by scanLock
+	private final Map<ClassLoader, LoaderState> loaderStates = new WeakHashMap<>();
+	// Not a monitor, so that waiting threads are never pinned to their carrier
+	private final ReentrantLock scanLock = new ReentrantLock();
 
 	/**
 	 * Get the only instance of this class.
 	 */
 	public static BeanFactory getInstance() {
-		if (instance == null) {
-			instance = new BeanFactory();
+		BeanFactory factory = INSTANCE.get();
+		if (factory == null) {
+			// Construction is cheap, a losing thread simply drops its own instance
+			INSTANCE.compareAndSet(null, new BeanFactory());
+			factory = INSTANCE.get();
 		}
-		return instance;
+		return factory;
 	}
 
 	/**
@@ -58,43 +109,360 @@ public final class BeanFactory {
 	 * @return An instance of the default bean implementation, or null if no provider was registered for the
 	 *         given class definition.
 	 */
-	@SuppressWarnings("unchecked")
 	public <T> T createBean(Class<T> beanInterface) {
-		BeanProvider<?> provider = providers.get(beanInterface);
-		if (provider != null) {
-			return (T) provider.createInstance();
+		BeanProvider<T> provider = providerFor(beanInterface);
+		if (provider == null) {
+			return null;
+		}
+		if (BeanFactoryMetrics.ENABLED) {
+			BeanFactoryMetrics.INSTANCE.beansCreated(beanInterface, 1);
 		}
-		return null;
+		return provider.createInstance();
+	}
+
+	/**
+	 * Create a number of instances of the default bean implementation for the given interface, with a single
+	 * provider lookup.
+	 * 
+	 * @return An array of new instances, or null if no provider was registered for the given class definition.
+	 */
+	public <T> T[] createBeans(Class<T> beanInterface, int count) {
+		BeanProvider<T> provider = providerFor(beanInterface);
+		if (provider == null) {
+			return null;
+		}
+		@SuppressWarnings("unchecked")
+		T[] beans = (T[]) Array.newInstance(beanInterface, count);
+		provider.createInstances(beans, 0, count);
+		if (BeanFactoryMetrics.ENABLED) {
+			BeanFactoryMetrics.INSTANCE.beansCreated(beanInterface, count);
+		}
+		return beans;
+	}
+
+	/**
+	 * Fill an array with new instances of the default bean implementation for the given interface.
+	 * 
+	 * @return false if no provider was registered for the given class definition.
+	 */
+	public <T> boolean createBeans(Class<T> beanInterface, T[] array) {
+		BeanProvider<T> provider = providerFor(beanInterface);
+		if (provider == null) {
+			return false;
+		}
+		provider.createInstances(array, 0, array.length);
+		if (BeanFactoryMetrics.ENABLED) {
+			BeanFactoryMetrics.INSTANCE.beansCreated(beanInterface, array.length);
+		}
+		return true;
+	}
+
+	/**
+	 * Add a number of new instances of the default bean implementation for the given interface to a
+	 * collection.
+	 * 
+	 * @return false if no provider was registered for the given class definition.
+	 */
+	public <T> boolean createBeans(Class<T> beanInterface, Collection<? super T> collection, int count) {
+		BeanProvider<T> provider = providerFor(beanInterface);
+		if (provider == null) {
+			return false;
+		}
+		provider.createInstances(collection, count);
+		if (BeanFactoryMetrics.ENABLED) {
+			BeanFactoryMetrics.INSTANCE.beansCreated(beanInterface, count);
+		}
+		return true;
+	}
+
+	/**
+	 * Get the provider of the default bean implementation for the given interface. Callers that create many
+	 * beans of the same interface can keep the result, typically in a static final field, and skip the lookup
+	 * altogether.
+	 * 
+	 * @param beanInterface
+	 *            The interface for which to get the provider.
+	 * @return The provider of the default bean implementation, or null if no provider was registered for the
+	 *         given class definition. A null result is remembered for the interface and the context class loader of
+	 *         the calling thread.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> BeanProvider<T> providerFor(Class<T> beanInterface) {
+		Resolution resolution = resolutions.get(beanInterface);
+		BeanProvider<?> provider = resolution.provider;
+		if (provider == null) {
+			provider = contextProvider(beanInterface, resolution);
+			if (provider == null && BeanFactoryMetrics.ENABLED) {
+				BeanFactoryMetrics.INSTANCE.lookupMissed(beanInterface);
+			}
+		}
+		return (BeanProvider<T>) provider;
+	}
+
+	/**
+	 * Get the metrics of this factory, which are collected only when enabled by the system property
+	 * {@value BeanFactoryMetrics#ENABLED_PROPERTY}.
+	 */
+	public BeanFactoryMetrics getMetrics() {
+		return BeanFactoryMetrics.INSTANCE;
 	}
 
 	/**
 	 * Get a list of all the registered bean providers.
 	 */
 	public List<BeanProvider<?>> getAllBeanProviders() {
-		return new ArrayList<>(providers.values());
+		Set<BeanProvider<?>> allProviders = new LinkedHashSet<>();
+		scanLock.lock();
+		try {
+			ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
+			if (contextLoader != null) {
+				scanClassLoader(contextLoader);
+			}
+			for (LoaderState state : loaderStates.values()) {
+				for (Reference<BeanProvider<?>> providerRef : state.providers.values()) {
+					BeanProvider<?> provider = providerRef.get();
+					if (provider != null) {
+						allProviders.add(provider);
+					}
+				}
+			}
+		} finally {
+			scanLock.unlock();
+		}
+		return new ArrayList<>(allProviders);
 	}
 
 	private BeanFactory() {
-		BeanProviderRegistry registry = new BeanProviderRegistry() {
-			@Override
-			public <T> void register(BeanProvider<T> provider) {
-				Class<?> beanInterface = provider.getBeanInterface();
-				if (beanInterface != null) {
-					BeanProvider<?> existingProvider = providers.get(beanInterface);
-					if (existingProvider == null) {
-						providers.put(beanInterface, provider);
-					} else {
-						LOG.warn("Ignoring provider {} of bean interface {} because it is already provided by {}",
-								provider, beanInterface, existingProvider);
+	}
+
+	private static ClassLoader interfaceLoader(Class<?> beanInterface) {
+		ClassLoader classLoader = beanInterface.getClassLoader();
+		return classLoader != null ? classLoader : ClassLoader.getSystemClassLoader();
+	}
+
+	/**
+	 * Get the provider visible only to the context class loader of the calling thread, which is looked up once
+	 * per class loader.
+	 */
+	private BeanProvider<?> contextProvider(Class<?> beanInterface, Resolution resolution) {
+		ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
+		if (contextLoader == null || contextLoader == interfaceLoader(beanInterface)) {
+			return null;
+		}
+		Reference<BeanProvider<?>> providerRef = resolution.contextProviders.get(contextLoader);
+		if (providerRef == null) {
+			// A concurrent lookup finds the same provider, whichever is kept
+			providerRef = new WeakReference<BeanProvider<?>>(findProvider(beanInterface, contextLoader));
+			resolution.contextProviders.put(contextLoader, providerRef);
+		}
+		return providerRef.get();
+	}
+
+	private BeanProvider<?> findProvider(Class<?> beanInterface, ClassLoader classLoader) {
+		long start = BeanFactoryMetrics.ENABLED ? System.nanoTime() : 0;
+		try {
+			// Look for the provider in the index first, and only then in all the provider services
+			BeanProvider<?> provider = loadIndexedProvider(beanInterface, classLoader);
+			if (provider != null) {
+				return provider;
+			}
+			scanLock.lock();
+			try {
+				return scanClassLoader(classLoader).provider(beanInterface);
+			} finally {
+				scanLock.unlock();
+			}
+		} finally {
+			if (BeanFactoryMetrics.ENABLED) {
+				BeanFactoryMetrics.INSTANCE.providerLoaded(System.nanoTime() - start);
+			}
+		}
+	}
+
+	/**
+	 * Load the provider of the given interface if the index of the given class loader, or the resource of that
+	 * single bean, names it.
+	 * 
+	 * @return The provider of the interface registered through the class loader, by this call or by an earlier
+	 *         one, or null if none was found.
+	 */
+	private BeanProvider<?> loadIndexedProvider(Class<?> beanInterface, ClassLoader classLoader) {
+		LoaderState state;
+		String providerName;
+		scanLock.lock();
+		try {
+			state = stateOf(classLoader);
+			BeanProvider<?> provider = state.provider(beanInterface);
+			if (provider != null) {
+				return provider;
+			}
+			if (state.index == null) {
+				state.index = readIndex(classLoader);
+			}
+			providerName = state.index.get(beanInterface.getName());
+		} finally {
+			scanLock.unlock();
+		}
+		if (providerName == null) {
+			providerName = readProviderResource(beanInterface, classLoader);
+		}
+		if (providerName == null) {
+			return null;
+		}
+		try {
+			BeanProvider<?> provider = (BeanProvider<?>) Class.forName(providerName, true, classLoader)
+					.getConstructor().newInstance();
+			// The index of another class loader can name an interface of the same name
+			if (provider.getBeanInterface() != beanInterface) {
+				return null;
+			}
+			scanLock.lock();
+			try {
+				return register(state, provider);
+			} finally {
+				scanLock.unlock();
+			}
+		} catch (ReflectiveOperationException | ClassCastException | LinkageError e) {
+			LOG.warn("Cannot load provider {} of bean interface {}", providerName, beanInterface.getName(), e);
+			return null;
+		}
+	}
+
+	/**
+	 * Read the name of the provider class from the resource of a single bean, if there is one.
+	 */
+	private static String readProviderResource(Class<?> beanInterface, ClassLoader classLoader) {
+		URL resource = classLoader.getResource(BeanProviderService.PROVIDER_RESOURCE_PREFIX + beanInterface.getName());
+		if (resource == null) {
+			return null;
+		}
+		try (InputStream in = resource.openStream()) {
+			String line = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)).readLine();
+			return line != null && !line.trim().isEmpty() ? line.trim() : null;
+		} catch (IOException e) {
+			LOG.warn("Cannot read the provider of bean interface {}", beanInterface.getName(), e);
+			return null;
+		}
+	}
+
+	/**
+	 * Read all the index resources visible to the given class loader.
+	 */
+	private static Map<String, String> readIndex(ClassLoader classLoader) {
+		Map<String, String> index = new HashMap<>();
+		try {
+			Enumeration<URL> resources = classLoader.getResources(BeanProviderService.INDEX_RESOURCE);
+			while (resources.hasMoreElements()) {
+				URL resource = resources.nextElement();
+				try (InputStream in = resource.openStream()) {
+					BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+					for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+						int separator = line.indexOf('=');
+						if (separator > 0 && !line.startsWith("#")) {
+							String beanInterface = line.substring(0, separator).trim();
+							// The first index wins, like the first provider service
+							if (!index.containsKey(beanInterface)) {
+								index.put(beanInterface, line.substring(separator + 1).trim());
+							}
+						}
 					}
-				} else {
-					LOG.warn("Provider {} has a null bean interface", provider);
 				}
 			}
-		};
-		// Collect all providers by visiting the service providers of BeanProviderService
-		for (BeanProviderService providerService : ServiceLoader.load(BeanProviderService.class)) {
-			providerService.registerProviders(registry);
+		} catch (IOException e) {
+			LOG.warn("Cannot read the bean index of class loader {}", classLoader, e);
+		}
+		return index;
+	}
+
+	/**
+	 * Register the providers of all the {@link BeanProviderService} services visible to the given class loader,
+	 * unless that was already done. Must be called with scanLock held.
+	 */
+	private LoaderState scanClassLoader(ClassLoader classLoader) {
+		final LoaderState state = stateOf(classLoader);
+		if (!state.scanned) {
+			state.scanned = true;
+			BeanProviderRegistry registry = new BeanProviderRegistry() {
+				@Override
+				public <T> void register(BeanProvider<T> provider) {
+					BeanFactory.this.register(state, provider);
+				}
+			};
+			// Collect all providers by visiting the service providers of BeanProviderService
+			for (BeanProviderService providerService : ServiceLoader.load(BeanProviderService.class, classLoader)) {
+				providerService.registerProviders(registry);
+			}
+		}
+		return state;
+	}
+
+	/**
+	 * Must be called with scanLock held.
+	 */
+	private LoaderState stateOf(ClassLoader classLoader) {
+		LoaderState state = loaderStates.get(classLoader);
+		if (state == null) {
+			state = new LoaderState();
+			loaderStates.put(classLoader, state);
+		}
+		return state;
+	}
+
+	/**
+	 * Register a provider through a class loader. Must be called with scanLock held.
+	 * 
+	 * @return The provider of the interface registered through the class loader, which is the given one unless
+	 *         another was registered first.
+	 */
+	private BeanProvider<?> register(LoaderState state, BeanProvider<?> provider) {
+		Class<?> beanInterface = provider.getBeanInterface();
+		if (beanInterface == null) {
+			LOG.warn("Provider {} has a null bean interface", provider);
+			return null;
+		}
+		BeanProvider<?> existingProvider = state.provider(beanInterface);
+		if (existingProvider != null) {
+			// The same service is visible through every class loader that delegates to its own one
+			if (existingProvider.getClass() != provider.getClass()) {
+				LOG.warn("Ignoring provider {} of bean interface {} because it is already provided by {}", provider,
+						beanInterface, existingProvider);
+			}
+			return existingProvider;
+		}
+		anchors.get(provider.getClass()).add(provider);
+		state.providers.put(beanInterface, new WeakReference<BeanProvider<?>>(provider));
+		return provider;
+	}
+
+	/**
+	 * The providers of a single bean interface, the one visible to the class loader of the interface and those
+	 * visible only to the context class loaders of the requesting threads. Misses are remembered as well, so
+	 * that they are looked up only once.
+	 */
+	private static final class Resolution {
+		final BeanProvider<?> provider;
+		// The values are weak, so that a provider never pins the class loader that keys it
+		final Map<ClassLoader, Reference<BeanProvider<?>>> contextProviders = Collections
+				.synchronizedMap(new WeakHashMap<ClassLoader, Reference<BeanProvider<?>>>());
+
+		Resolution(BeanProvider<?> provider) {
+			this.provider = provider;
+		}
+	}
+
+	/**
+	 * The providers registered through a single class loader.
+	 */
+	private static final class LoaderState {
+		// Provider class names by interface name, read from the index resources of the class loader
+		Map<String, String> index;
+		// Whether the provider services of the class loader were already collected
+		boolean scanned;
+		final Map<Class<?>, Reference<BeanProvider<?>>> providers = new WeakHashMap<>();
+
+		BeanProvider<?> provider(Class<?> beanInterface) {
+			Reference<BeanProvider<?>> providerRef = providers.get(beanInterface);
+			return providerRef != null ? providerRef.get() : null;
 		}
 	}
 
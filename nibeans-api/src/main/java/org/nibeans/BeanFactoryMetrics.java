@@ -0,0 +1,289 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.nibeans.internal.StripedCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runtime metrics of the {@link BeanFactory}: the beans it created per interface, its lookups of interfaces
+ * without a provider and the time it spent loading providers. Beans created directly through a provider or a
+ * static factory are not counted.
+ * <p/>
+ * 
+ * Metrics are collected only when the system property {@value #ENABLED_PROPERTY} is true at startup, and are then
+ * also registered as the platform MXBean {@value #OBJECT_NAME}. Otherwise the factory skips them altogether, and
+ * all values are zero.
+ * 
+ * @author Tareq Sharafy (tareq.sharafy@sap.com)
+ *
+ */
+public final class BeanFactoryMetrics implements BeanFactoryMetricsMXBean {
+
+	public static final String ENABLED_PROPERTY = "nibeans.metrics";
+	public static final String OBJECT_NAME = "org.nibeans:type=BeanFactoryMetrics";
+
+	// A constant, so that the JIT drops the metrics from the creation path when disabled
+	static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+	static final BeanFactoryMetrics INSTANCE = new BeanFactoryMetrics();
+
+	private static final Logger LOG = LoggerFactory.getLogger(BeanFactoryMetrics.class);
+	// The shortest period over which the creation rate is computed
+	private static final long RATE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	// Keyed by interface names, so that the metrics hold no classes
+	private final ConcurrentMap<String, StripedCounter> creations = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, StripedCounter> misses = new ConcurrentHashMap<>();
+	private final ClassValue<StripedCounter> creationCounters = new ClassValue<StripedCounter>() {
+		@Override
+		protected StripedCounter computeValue(Class<?> beanInterface) {
+			return counter(creations, beanInterface);
+		}
+	};
+	private final AtomicLong providerLoads = new AtomicLong();
+	private final AtomicLong providerLoadNanos = new AtomicLong();
+	private final AtomicLong maxProviderLoadNanos = new AtomicLong();
+	private final AtomicReference<RateSample> rateSample = new AtomicReference<>(new RateSample(System.nanoTime(),
+			0, 0));
+
+	static {
+		if (ENABLED) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+			} catch (JMException e) {
+				LOG.warn("Cannot register the bean factory metrics as {}", OBJECT_NAME, e);
+			}
+		}
+	}
+
+	/**
+	 * The point in time of the last computed creation rate.
+	 */
+	private static final class RateSample {
+		final long nanoTime;
+		final long createdBeans;
+		final double rate;
+
+		RateSample(long nanoTime, long createdBeans, double rate) {
+			this.nanoTime = nanoTime;
+			this.createdBeans = createdBeans;
+			this.rate = rate;
+		}
+	}
+
+	/**
+	 * A consistent copy of the metrics at a point in time.
+	 */
+	public static final class Snapshot {
+		private final long createdBeans;
+		private final double creationRate;
+		private final long lookupMisses;
+		private final long providerLoads;
+		private final long providerLoadNanos;
+		private final long maxProviderLoadNanos;
+		private final Map<String, Long> createdBeansByInterface;
+		private final Map<String, Long> lookupMissesByInterface;
+
+		Snapshot(BeanFactoryMetrics metrics) {
+			createdBeansByInterface = sums(metrics.creations);
+			lookupMissesByInterface = sums(metrics.misses);
+			createdBeans = total(createdBeansByInterface);
+			lookupMisses = total(lookupMissesByInterface);
+			creationRate = metrics.creationRate(createdBeans);
+			providerLoads = metrics.providerLoads.get();
+			providerLoadNanos = metrics.providerLoadNanos.get();
+			maxProviderLoadNanos = metrics.maxProviderLoadNanos.get();
+		}
+
+		/**
+		 * The number of beans created by the factory.
+		 */
+		public long getCreatedBeans() {
+			return createdBeans;
+		}
+
+		/**
+		 * The beans created per second, over the last period of at least a second between two snapshots.
+		 */
+		public double getCreationRate() {
+			return creationRate;
+		}
+
+		/**
+		 * The number of lookups of interfaces without a provider.
+		 */
+		public long getLookupMisses() {
+			return lookupMisses;
+		}
+
+		/**
+		 * The number of lookups that loaded the providers of their interface, through an index or a service scan.
+		 */
+		public long getProviderLoads() {
+			return providerLoads;
+		}
+
+		public long getProviderLoadTime(TimeUnit unit) {
+			return unit.convert(providerLoadNanos, TimeUnit.NANOSECONDS);
+		}
+
+		public long getMaxProviderLoadTime(TimeUnit unit) {
+			return unit.convert(maxProviderLoadNanos, TimeUnit.NANOSECONDS);
+		}
+
+		/**
+		 * The number of created beans by the names of their interfaces, sorted by names.
+		 */
+		public Map<String, Long> getCreatedBeansByInterface() {
+			return createdBeansByInterface;
+		}
+
+		/**
+		 * The number of lookups without a provider by the names of their interfaces, sorted by names.
+		 */
+		public Map<String, Long> getLookupMissesByInterface() {
+			return lookupMissesByInterface;
+		}
+
+		private static Map<String, Long> sums(Map<String, StripedCounter> counters) {
+			Map<String, Long> sums = new TreeMap<>();
+			for (Map.Entry<String, StripedCounter> entry : counters.entrySet()) {
+				sums.put(entry.getKey(), entry.getValue().sum());
+			}
+			return Collections.unmodifiableMap(sums);
+		}
+
+		private static long total(Map<String, Long> sums) {
+			long total = 0;
+			for (Long sum : sums.values()) {
+				total += sum;
+			}
+			return total;
+		}
+	}
+
+	private BeanFactoryMetrics() {
+	}
+
+	/**
+	 * Take a snapshot of the current metrics.
+	 */
+	public Snapshot snapshot() {
+		return new Snapshot(this);
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return ENABLED;
+	}
+
+	@Override
+	public long getCreatedBeans() {
+		return snapshot().getCreatedBeans();
+	}
+
+	@Override
+	public double getCreationRate() {
+		return snapshot().getCreationRate();
+	}
+
+	@Override
+	public long getLookupMisses() {
+		return snapshot().getLookupMisses();
+	}
+
+	@Override
+	public long getProviderLoads() {
+		return providerLoads.get();
+	}
+
+	@Override
+	public long getProviderLoadTimeMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(providerLoadNanos.get());
+	}
+
+	@Override
+	public long getMaxProviderLoadTimeMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(maxProviderLoadNanos.get());
+	}
+
+	@Override
+	public Map<String, Long> getCreatedBeansByInterface() {
+		return snapshot().getCreatedBeansByInterface();
+	}
+
+	@Override
+	public Map<String, Long> getLookupMissesByInterface() {
+		return snapshot().getLookupMissesByInterface();
+	}
+
+	void beansCreated(Class<?> beanInterface, int count) {
+		creationCounters.get(beanInterface).add(count);
+	}
+
+	void lookupMissed(Class<?> beanInterface) {
+		counter(misses, beanInterface).increment();
+	}
+
+	void providerLoaded(long nanos) {
+		providerLoads.incrementAndGet();
+		providerLoadNanos.addAndGet(nanos);
+		long max = maxProviderLoadNanos.get();
+		while (nanos > max && !maxProviderLoadNanos.compareAndSet(max, nanos)) {
+			max = maxProviderLoadNanos.get();
+		}
+	}
+
+	private double creationRate(long createdBeans) {
+		long now = System.nanoTime();
+		RateSample sample = rateSample.get();
+		long elapsed = now - sample.nanoTime;
+		if (elapsed < RATE_WINDOW_NANOS) {
+			return sample.rate;
+		}
+		double rate = (createdBeans - sample.createdBeans) * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+		// A concurrent snapshot that started the next window wins
+		rateSample.compareAndSet(sample, new RateSample(now, createdBeans, rate));
+		return rate;
+	}
+
+	private static StripedCounter counter(ConcurrentMap<String, StripedCounter> counters, Class<?> beanInterface) {
+		StripedCounter counter = counters.get(beanInterface.getName());
+		if (counter == null) {
+			StripedCounter newCounter = new StripedCounter();
+			counter = counters.putIfAbsent(beanInterface.getName(), newCounter);
+			if (counter == null) {
+				counter = newCounter;
+			}
+		}
+		return counter;
+	}
+
+}
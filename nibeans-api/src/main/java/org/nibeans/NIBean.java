@@ -42,6 +42,9 @@ import java.lang.annotation.Target;
  * </pre>
  * 
  * If the interface has any non-conforming methods, it is ignored by the generator.
+ * <p/>
+ * 
+ * The attributes of this annotation tune the generated implementation.
  * 
  * @author Tareq Sharafy (tareq.sharafy@sap.com)
  *
@@ -49,4 +52,57 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.TYPE)
 public @interface NIBean {
+
+	/**
+	 * Whether the implementation remembers the result of {@link Object#hashCode()} until a setter is called.
+	 * Useful for beans that serve as hash keys and are rarely modified. A bean that caches its hash code can only
+	 * extend a bean that does the same.
+	 */
+	boolean cacheHashCode() default false;
+
+	/**
+	 * Whether the implementation is immutable. Its fields are final, and it is modified by chain setters that
+	 * return a modified copy, or created by the generated builder. Plain setters are not allowed. An immutable
+	 * bean can only extend an immutable bean.
+	 */
+	boolean immutable() default false;
+
+	/**
+	 * Whether instances can be reused through {@link org.nibeans.internal.BeanProvider#acquire()} and
+	 * {@link org.nibeans.internal.BeanProvider#release(Object)}, or a {@link BeanArena}. The implementation gets a
+	 * reset() method that restores the initial values of all the fields. A pooled bean can only extend a pooled
+	 * bean, and cannot be immutable.
+	 */
+	boolean pooled() default false;
+
+	/**
+	 * Whether the implementation records which properties were modified through its setters, chain setters and
+	 * copyFrom(), see {@link org.nibeans.internal.DirtyTrackingBean}. A tracking bean can only extend a tracking
+	 * bean, and cannot be immutable.
+	 */
+	boolean trackChanges() default false;
+
+	/**
+	 * Whether the implementation packs its boolean properties, including boxed ones, into int or long bit fields
+	 * when that takes less space than a field per property. Such immutable beans are not generated as records.
+	 */
+	boolean compactLayout() default false;
+
+	/**
+	 * Whether the beans are shared state that threads update concurrently. The fields are volatile, and all
+	 * properties get atomic compareAndSet, getAndSet and getAndUpdate methods, and numeric ones getAndAdd and
+	 * addAndGet methods. Primitives other than int and long are stored as their bits in int or long fields, and
+	 * compared by their bits, reference values are compared by equals(). A concurrent bean can only extend a
+	 * concurrent bean, and cannot be immutable, compact, cache its hash code or track changes.
+	 */
+	boolean concurrent() default false;
+
+	/**
+	 * The properties that define the natural order of the beans, each one breaking the ties of the previous ones.
+	 * When given, the implementation is {@link Comparable} to the bean interface, and nulls come first. The
+	 * properties can be inherited ones, and must be primitive or comparable. A bean cannot redefine the natural
+	 * order of its base bean.
+	 */
+	String[] comparableBy() default {};
+
 }
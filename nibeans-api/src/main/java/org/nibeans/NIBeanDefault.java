@@ -0,0 +1,48 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Gives the getter of a {@link NIBean} property a default value, a new instance of the given class that is
+ * created on the first read of the property rather than with the bean. Example:
+ * 
+ * <pre>
+ * &#64;NIBeanDefault(ArrayList.class)
+ * List&lt;String&gt; getTags();
+ * </pre>
+ * 
+ * The class must have a public constructor without arguments, and be assignable to the property type. A property
+ * that is null, initially or after being set so, gets a new default instance when read. Properties of immutable
+ * beans cannot have defaults.
+ * 
+ * @author Tareq Sharafy (tareq.sharafy@sap.com)
+ *
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface NIBeanDefault {
+
+	/**
+	 * The class of the default values.
+	 */
+	Class<?> value();
+
+}
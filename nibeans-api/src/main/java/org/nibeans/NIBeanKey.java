@@ -0,0 +1,53 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the getter of a property that identifies {@link NIBean} beans. The implementation of a bean with key
+ * properties gets a nested Index class, an open-addressing hash table of beans by their keys, which hashes and
+ * compares the key properties of the beans in place instead of keeping key objects. Keys of several properties
+ * are composite, in the order of their getters, after the keys of the base bean. Example:
+ * 
+ * <pre>
+ * &#64;NIBean
+ * public interface Account {
+ * 
+ * 	&#64;NIBeanKey
+ * 	long getId();
+ * 
+ * 	void setId(long v);
+ * }
+ * 
+ * Account_impl.Index accounts = new Account_impl.Index();
+ * accounts.put(account);
+ * Account found = accounts.get(42L);
+ * </pre>
+ * 
+ * Keys can have any type but arrays, and are compared like the properties in the generated equals().
+ * 
+ * @author Tareq Sharafy (tareq.sharafy@sap.com)
+ *
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface NIBeanKey {
+
+}
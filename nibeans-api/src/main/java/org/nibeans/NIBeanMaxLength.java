@@ -0,0 +1,47 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Bounds the length of a String property of a {@link NIBean} in characters, on its getter. Bounded strings take a
+ * fixed number of bytes in the records of the generated stores, so beans whose properties are all primitive or
+ * bounded strings get a Store class with the {@code nib.store} processor option. Example:
+ * 
+ * <pre>
+ * &#64;NIBeanMaxLength(12)
+ * String getSymbol();
+ * </pre>
+ * 
+ * The bound is checked when a value is written to a store, not by the setters of the beans.
+ * 
+ * @author Tareq Sharafy (tareq.sharafy@sap.com)
+ *
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface NIBeanMaxLength {
+
+	/**
+	 * The maximal number of characters, at most {@link Short#MAX_VALUE}.
+	 */
+	int value();
+
+}
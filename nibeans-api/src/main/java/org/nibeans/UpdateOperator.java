@@ -0,0 +1,104 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans;
+
+/**
+ * A function that computes the new value of a property from its current one, for the atomic updates of
+ * {@link NIBean#concurrent() concurrent} beans. It can be applied several times when threads contend, so it should
+ * have no side effects.
+ * 
+ * @author Tareq Sharafy (tareq.sharafy@sap.com)
+ *
+ * @param <T>
+ *            The property type.
+ */
+public interface UpdateOperator<T> {
+
+	T apply(T v);
+
+	/**
+	 * The same for boolean properties, without boxing.
+	 */
+	interface OfBoolean {
+
+		boolean apply(boolean v);
+
+	}
+
+	/**
+	 * The same for byte properties, without boxing.
+	 */
+	interface OfByte {
+
+		byte apply(byte v);
+
+	}
+
+	/**
+	 * The same for short properties, without boxing.
+	 */
+	interface OfShort {
+
+		short apply(short v);
+
+	}
+
+	/**
+	 * The same for char properties, without boxing.
+	 */
+	interface OfChar {
+
+		char apply(char v);
+
+	}
+
+	/**
+	 * The same for int properties, without boxing.
+	 */
+	interface OfInt {
+
+		int apply(int v);
+
+	}
+
+	/**
+	 * The same for long properties, without boxing.
+	 */
+	interface OfLong {
+
+		long apply(long v);
+
+	}
+
+	/**
+	 * The same for float properties, without boxing.
+	 */
+	interface OfFloat {
+
+		float apply(float v);
+
+	}
+
+	/**
+	 * The same for double properties, without boxing.
+	 */
+	interface OfDouble {
+
+		double apply(double v);
+
+	}
+
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.internal;
+
+import java.util.Collection;
+
+/**
+ * A base class of bean providers, which need to implement only {@link #getBeanInterface()} and
+ * {@link #createInstance()}. The other methods fall back to creating single instances, without pooling, so
+ * providers that extend this class keep working as methods are added to {@link BeanProvider}. Generated providers
+ * override them.
+ * 
+ * @author Tareq Sharafy (tareq.sharafy@sap.com)
+ *
+ * @param <T>
+ *            An interface that defines a java bean, annotated with {@link org.nibeans.NIBean} by definition.
+ */
+public abstract class AbstractBeanProvider<T> implements BeanProvider<T> {
+
+	@Override
+	public void createInstances(T[] array, int fromIndex, int toIndex) {
+		if (fromIndex < 0 || fromIndex > toIndex || toIndex > array.length) {
+			throw new IndexOutOfBoundsException("range [" + fromIndex + ", " + toIndex + ") of length " + array.length);
+		}
+		for (int i = fromIndex; i < toIndex; ++i) {
+			array[i] = createInstance();
+		}
+	}
+
+	@Override
+	public void createInstances(Collection<? super T> collection, int count) {
+		for (int i = 0; i < count; ++i) {
+			collection.add(createInstance());
+		}
+	}
+
+	/**
+	 * Always creates a new instance.
+	 */
+	@Override
+	public T acquire() {
+		return createInstance();
+	}
+
+	/**
+	 * Ignores the bean.
+	 */
+	@Override
+	public void release(T bean) {
+	}
+
+	/**
+	 * @throws UnsupportedOperationException
+	 *             always, unless overridden.
+	 */
+	@Override
+	public BeanAccessor<T> getAccessor() {
+		throw new UnsupportedOperationException(this + " has no accessor");
+	}
+
+}
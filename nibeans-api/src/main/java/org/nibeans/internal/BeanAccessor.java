@@ -0,0 +1,177 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.internal;
+
+import java.util.Map;
+
+/**
+ * Access to the properties of beans by their index, without reflection. Properties are indexed by their order
+ * in the bean, starting with those of base beans. Every bean interface has a generated accessor, available from
+ * {@link BeanProvider#getAccessor()}.
+ * <p/>
+ * 
+ * The primitive getters and setters avoid boxing for properties of primitive types, and box or unbox the values
+ * of other properties.
+ * 
+ * @author Tareq Sharafy (tareq.sharafy@sap.com)
+ *
+ * @param <T>
+ *            The bean interface.
+ */
+public abstract class BeanAccessor<T> {
+
+	public abstract Class<T> getBeanInterface();
+
+	public abstract int getPropertyCount();
+
+	public abstract String getPropertyName(int index);
+
+	public abstract Class<?> getPropertyType(int index);
+
+	/**
+	 * Whether the property can be set, which is never the case for immutable beans.
+	 */
+	public abstract boolean isWritable(int index);
+
+	/**
+	 * The index of a property.
+	 * 
+	 * @return The index, or -1 if the bean has no such property.
+	 */
+	public abstract int indexOf(String name);
+
+	public abstract Object get(T bean, int index);
+
+	/**
+	 * Set the value of a property.
+	 * 
+	 * @throws UnsupportedOperationException
+	 *             if the property is not writable.
+	 * @throws ClassCastException
+	 *             if the value does not match the property type.
+	 */
+	public abstract void set(T bean, int index, Object value);
+
+	public boolean getBoolean(T bean, int index) {
+		return (Boolean) get(bean, index);
+	}
+
+	public void setBoolean(T bean, int index, boolean value) {
+		set(bean, index, value);
+	}
+
+	public byte getByte(T bean, int index) {
+		return (Byte) get(bean, index);
+	}
+
+	public void setByte(T bean, int index, byte value) {
+		set(bean, index, value);
+	}
+
+	public short getShort(T bean, int index) {
+		return (Short) get(bean, index);
+	}
+
+	public void setShort(T bean, int index, short value) {
+		set(bean, index, value);
+	}
+
+	public char getChar(T bean, int index) {
+		return (Character) get(bean, index);
+	}
+
+	public void setChar(T bean, int index, char value) {
+		set(bean, index, value);
+	}
+
+	public int getInt(T bean, int index) {
+		return (Integer) get(bean, index);
+	}
+
+	public void setInt(T bean, int index, int value) {
+		set(bean, index, value);
+	}
+
+	public long getLong(T bean, int index) {
+		return (Long) get(bean, index);
+	}
+
+	public void setLong(T bean, int index, long value) {
+		set(bean, index, value);
+	}
+
+	public float getFloat(T bean, int index) {
+		return (Float) get(bean, index);
+	}
+
+	public void setFloat(T bean, int index, float value) {
+		set(bean, index, value);
+	}
+
+	public double getDouble(T bean, int index) {
+		return (Double) get(bean, index);
+	}
+
+	public void setDouble(T bean, int index, double value) {
+		set(bean, index, value);
+	}
+
+	/**
+	 * A view of a bean as a map from property names to values. The map cannot have more keys than the bean has
+	 * properties, and keys cannot be removed.
+	 */
+	public Map<String, Object> asMap(T bean) {
+		return new BeanMap<>(this, bean);
+	}
+
+	/**
+	 * The slot of a name in the table of a perfect hash that was computed at compile time, from the displacement
+	 * of its bucket and the second hash of its characters.
+	 */
+	protected static int slot(String name, int[] displacements, int shift) {
+		return displace(secondHash(name), displacements[bucket(name, displacements.length)], shift);
+	}
+
+	/**
+	 * The bucket of a name, by its hash code, for a power of two buckets.
+	 */
+	public static int bucket(String name, int bucketCount) {
+		return ((name.hashCode() * 0x85EBCA6B) >>> 16) & (bucketCount - 1);
+	}
+
+	/**
+	 * A hash of the characters of a name that is independent of {@link String#hashCode()}, FNV-1a.
+	 */
+	public static int secondHash(String name) {
+		int h = 0x811C9DC5;
+		for (int i = 0; i < name.length(); ++i) {
+			h = (h ^ name.charAt(i)) * 0x01000193;
+		}
+		return h;
+	}
+
+	public static int displace(int secondHash, int displacement, int shift) {
+		return ((secondHash + displacement) * 0x9E3779B9) >>> shift;
+	}
+
+	/**
+	 * The error for an index that is not of a property.
+	 */
+	protected IndexOutOfBoundsException badIndex(int index) {
+		return new IndexOutOfBoundsException("property " + index + " of " + getBeanInterface().getName());
+	}
+
+}
@@ -32,4 +32,171 @@ public class BeanImplementationHelper {
 		return Objects.equals(a, b);
 	}
 
+	/**
+	 * The hash code of a boolean value, same as that of the boxed value.
+	 */
+	public static int hash(boolean v) {
+		return v ? 1231 : 1237;
+	}
+
+	/**
+	 * The hash code of an int value, also used for the narrower integral types.
+	 */
+	public static int hash(int v) {
+		return v;
+	}
+
+	/**
+	 * The hash code of a long value, same as that of the boxed value.
+	 */
+	public static int hash(long v) {
+		return (int) (v ^ (v >>> 32));
+	}
+
+	/**
+	 * The hash code of a float value. Both zeros have the same hash code, as they are equal by the == operator.
+	 */
+	public static int hash(float v) {
+		return v == 0.0f ? 0 : Float.floatToIntBits(v);
+	}
+
+	/**
+	 * The hash code of a double value. Both zeros have the same hash code, as they are equal by the == operator.
+	 */
+	public static int hash(double v) {
+		return v == 0.0d ? 0 : hash(Double.doubleToLongBits(v));
+	}
+
+	/**
+	 * The hash code of an object, 0 for null.
+	 */
+	public static int hash(Object v) {
+		return v != null ? v.hashCode() : 0;
+	}
+
+	/**
+	 * Set or clear the bit of a packed boolean property.
+	 */
+	public static int pack(int word, int mask, boolean v) {
+		return v ? word | mask : word & ~mask;
+	}
+
+	public static long pack(long word, long mask, boolean v) {
+		return v ? word | mask : word & ~mask;
+	}
+
+	/**
+	 * Pack a boxed boolean property into two bits, one for the value and one that is set for non-null values, so
+	 * that a zero word holds nulls.
+	 */
+	public static int pack(int word, int mask, int nonNullMask, Boolean v) {
+		return v == null ? word & ~(mask | nonNullMask) : pack(word | nonNullMask, mask, v.booleanValue());
+	}
+
+	public static long pack(long word, long mask, long nonNullMask, Boolean v) {
+		return v == null ? word & ~(mask | nonNullMask) : pack(word | nonNullMask, mask, v.booleanValue());
+	}
+
+	public static Boolean unpack(int word, int mask, int nonNullMask) {
+		return (word & nonNullMask) == 0 ? null : Boolean.valueOf((word & mask) != 0);
+	}
+
+	public static Boolean unpack(long word, long mask, long nonNullMask) {
+		return (word & nonNullMask) == 0 ? null : Boolean.valueOf((word & mask) != 0);
+	}
+
+	/**
+	 * The bits of a primitive property of a concurrent bean, which is stored in an int or long field so that field
+	 * updaters can update it. Floating point values keep their raw bits.
+	 */
+	public static int toBits(boolean v) {
+		return v ? 1 : 0;
+	}
+
+	public static int toBits(byte v) {
+		return v;
+	}
+
+	public static int toBits(short v) {
+		return v;
+	}
+
+	public static int toBits(char v) {
+		return v;
+	}
+
+	public static int toBits(float v) {
+		return Float.floatToRawIntBits(v);
+	}
+
+	public static long toBits(double v) {
+		return Double.doubleToRawLongBits(v);
+	}
+
+	public static boolean booleanFromBits(int bits) {
+		return bits != 0;
+	}
+
+	public static byte byteFromBits(int bits) {
+		return (byte) bits;
+	}
+
+	public static short shortFromBits(int bits) {
+		return (short) bits;
+	}
+
+	public static char charFromBits(int bits) {
+		return (char) bits;
+	}
+
+	public static float floatFromBits(int bits) {
+		return Float.intBitsToFloat(bits);
+	}
+
+	public static double doubleFromBits(long bits) {
+		return Double.longBitsToDouble(bits);
+	}
+
+	/**
+	 * A copy of an array, or null for null.
+	 */
+	public static boolean[] copyOf(boolean[] v) {
+		return v != null ? v.clone() : null;
+	}
+
+	public static byte[] copyOf(byte[] v) {
+		return v != null ? v.clone() : null;
+	}
+
+	public static short[] copyOf(short[] v) {
+		return v != null ? v.clone() : null;
+	}
+
+	public static char[] copyOf(char[] v) {
+		return v != null ? v.clone() : null;
+	}
+
+	public static int[] copyOf(int[] v) {
+		return v != null ? v.clone() : null;
+	}
+
+	public static long[] copyOf(long[] v) {
+		return v != null ? v.clone() : null;
+	}
+
+	public static float[] copyOf(float[] v) {
+		return v != null ? v.clone() : null;
+	}
+
+	public static double[] copyOf(double[] v) {
+		return v != null ? v.clone() : null;
+	}
+
+	/**
+	 * A copy of an array, or null for null. The elements are not copied.
+	 */
+	public static <T> T[] copyOf(T[] v) {
+		return v != null ? v.clone() : null;
+	}
+
 }
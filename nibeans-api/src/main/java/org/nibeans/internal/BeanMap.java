@@ -0,0 +1,147 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.internal;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map view of a bean through its accessor.
+ * 
+ * @author Tareq Sharafy (tareq.sharafy@sap.com)
+ *
+ */
+class BeanMap<T> extends AbstractMap<String, Object> {
+
+	private final BeanAccessor<T> accessor;
+	private final T bean;
+
+	BeanMap(BeanAccessor<T> accessor, T bean) {
+		this.accessor = accessor;
+		this.bean = bean;
+	}
+
+	@Override
+	public int size() {
+		return accessor.getPropertyCount();
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return key instanceof String && accessor.indexOf((String) key) >= 0;
+	}
+
+	@Override
+	public Object get(Object key) {
+		int index = key instanceof String ? accessor.indexOf((String) key) : -1;
+		return index >= 0 ? accessor.get(bean, index) : null;
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		int index = accessor.indexOf(key);
+		if (index < 0) {
+			throw new IllegalArgumentException("no property " + key + " in " + accessor.getBeanInterface().getName());
+		}
+		Object oldValue = accessor.get(bean, index);
+		accessor.set(bean, index, value);
+		return oldValue;
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		return new AbstractSet<Entry<String, Object>>() {
+			@Override
+			public int size() {
+				return accessor.getPropertyCount();
+			}
+
+			@Override
+			public Iterator<Entry<String, Object>> iterator() {
+				return new Iterator<Entry<String, Object>>() {
+					private int index;
+
+					@Override
+					public boolean hasNext() {
+						return index < accessor.getPropertyCount();
+					}
+
+					@Override
+					public Entry<String, Object> next() {
+						if (!hasNext()) {
+							throw new NoSuchElementException();
+						}
+						return new PropertyEntry(index++);
+					}
+
+					@Override
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+		};
+	}
+
+	private class PropertyEntry implements Entry<String, Object> {
+		private final int index;
+
+		PropertyEntry(int index) {
+			this.index = index;
+		}
+
+		@Override
+		public String getKey() {
+			return accessor.getPropertyName(index);
+		}
+
+		@Override
+		public Object getValue() {
+			return accessor.get(bean, index);
+		}
+
+		@Override
+		public Object setValue(Object value) {
+			Object oldValue = accessor.get(bean, index);
+			accessor.set(bean, index, value);
+			return oldValue;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Entry)) {
+				return false;
+			}
+			Entry<?, ?> other = (Entry<?, ?>) o;
+			return getKey().equals(other.getKey())
+					&& BeanImplementationHelper.equalsNullSafe(getValue(), other.getValue());
+		}
+
+		@Override
+		public int hashCode() {
+			return getKey().hashCode() ^ BeanImplementationHelper.hash(getValue());
+		}
+
+		@Override
+		public String toString() {
+			return getKey() + "=" + getValue();
+		}
+	}
+
+}
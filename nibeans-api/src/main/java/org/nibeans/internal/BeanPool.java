@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.internal;
+
+/**
+ * A pool of bean instances of a single implementation class, with a bounded stack per thread. Threads never
+ * contend on the pool, and a bean released by another thread than the one that acquired it simply moves to the
+ * pool of the releasing thread.
+ * 
+ * @author Tareq Sharafy (tareq.sharafy@sap.com)
+ *
+ * @param <T>
+ *            The bean interface.
+ */
+public final class BeanPool<T> {
+
+	/**
+	 * The default number of pooled instances per thread.
+	 */
+	public static final int DEFAULT_CAPACITY = 256;
+
+	private final BeanProvider<T> provider;
+	private final Class<?> implClass;
+	private final int capacity;
+	private final ThreadLocal<Stack> stacks = new ThreadLocal<Stack>() {
+		@Override
+		protected Stack initialValue() {
+			return new Stack(capacity);
+		}
+	};
+
+	/**
+	 * @param provider
+	 *            Creates the instances when the pool is empty.
+	 * @param implClass
+	 *            The class of the instances, which must implement {@link ResettableBean}.
+	 * @param capacity
+	 *            The maximal number of pooled instances per thread.
+	 */
+	public BeanPool(BeanProvider<T> provider, Class<? extends T> implClass, int capacity) {
+		if (!ResettableBean.class.isAssignableFrom(implClass)) {
+			throw new IllegalArgumentException(implClass + " is not resettable");
+		}
+		this.provider = provider;
+		this.implClass = implClass;
+		this.capacity = capacity;
+	}
+
+	public T acquire() {
+		Stack stack = stacks.get();
+		if (stack.size == 0) {
+			return provider.createInstance();
+		}
+		@SuppressWarnings("unchecked")
+		T bean = (T) stack.beans[--stack.size];
+		stack.beans[stack.size] = null;
+		return bean;
+	}
+
+	public void release(T bean) {
+		// Subclass instances have fields that a reset of this class does not know
+		if (bean == null || bean.getClass() != implClass) {
+			return;
+		}
+		((ResettableBean) bean).reset();
+		Stack stack = stacks.get();
+		if (stack.size < stack.beans.length) {
+			stack.beans[stack.size++] = bean;
+		}
+	}
+
+	private static class Stack {
+		final Object[] beans;
+		int size;
+
+		Stack(int capacity) {
+			beans = new Object[capacity];
+		}
+	}
+
+}
@@ -15,7 +15,11 @@
  */
 package org.nibeans.internal;
 
+import java.util.Collection;
+
 /**
+ * Creates the instances of a bean implementation. Methods are added to this interface over time, so
+ * implementations should extend {@link AbstractBeanProvider}, which has fallbacks for all but the two basic ones.
  * 
  * @author Tareq Sharafy (tareq.sharafy@sap.com)
  *
@@ -35,4 +39,37 @@ public interface BeanProvider<T> {
 	 */
 	public T createInstance();
 
+	/**
+	 * Fill a range of an array with new instances, same as calling {@link #createInstance()} for each element.
+	 * 
+	 * @throws IndexOutOfBoundsException
+	 *             if the range is not within the array.
+	 */
+	public void createInstances(T[] array, int fromIndex, int toIndex);
+
+	/**
+	 * Add a number of new instances to a collection.
+	 */
+	public void createInstances(Collection<? super T> collection, int count);
+
+	/**
+	 * Get an instance from the pool of the calling thread, or create a new one if the pool is empty. Beans
+	 * that are not pooled are always created.
+	 * 
+	 * @see org.nibeans.NIBean#pooled()
+	 */
+	public T acquire();
+
+	/**
+	 * Reset a bean and return it to the pool of the calling thread. The bean must not be used afterwards, nor
+	 * released twice. Beans that are not pooled are ignored, as well as beans of other implementation
+	 * classes.
+	 */
+	public void release(T bean);
+
+	/**
+	 * Get the accessor of the bean properties.
+	 */
+	public BeanAccessor<T> getAccessor();
+
 }
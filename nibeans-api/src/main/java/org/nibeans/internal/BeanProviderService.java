@@ -15,8 +15,28 @@
  */
 package org.nibeans.internal;
 
+/**
+ * A service that registers all the providers of a set of beans, found through {@link java.util.ServiceLoader}.
+ * Generated beans are also listed by an index resource, which lets the factory load the provider of a single
+ * bean on its first use instead of all the providers of the service.
+ * 
+ * @author Tareq Sharafy (tareq.sharafy@sap.com)
+ *
+ */
 public interface BeanProviderService {
 
+	/**
+	 * The index resource, with a line per bean of the form {@code interface=provider}, where both are binary
+	 * class names and the provider class has a public no-arguments constructor.
+	 */
+	public static final String INDEX_RESOURCE = "META-INF/nibeans/providers";
+
+	/**
+	 * The prefix of the resources that name the provider of a single bean, followed by the binary name of the
+	 * interface. Beans that are generated incrementally have only these, and no service.
+	 */
+	public static final String PROVIDER_RESOURCE_PREFIX = "META-INF/nibeans/beans/";
+
 	public void registerProviders(BeanProviderRegistry registry);
 
 }
@@ -0,0 +1,367 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.internal;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Arrays;
+
+/**
+ * Helper methods for the serialization code of bean implementations.
+ * <p/>
+ * 
+ * Every class in the hierarchy of an implementation writes a block of its own properties. A block starts with
+ * the format version and the number of properties, followed by the properties in any order. Each property is
+ * written as its tag, its wire type and its value. Readers skip the properties they do not know, and leave the
+ * ones that are missing with their initial values, so beans can gain or lose properties between versions.
+ * 
+ * @author Tareq Sharafy (tareq.sharafy@sap.com)
+ *
+ */
+public class BeanSerializationHelper {
+
+	/**
+	 * The version of the serialization format.
+	 */
+	public static final int FORMAT_VERSION = 1;
+
+	// Wire types
+	public static final int BOOLEAN = 1;
+	public static final int BYTE = 2;
+	public static final int SHORT = 3;
+	public static final int CHAR = 4;
+	public static final int INT = 5;
+	public static final int LONG = 6;
+	public static final int FLOAT = 7;
+	public static final int DOUBLE = 8;
+	public static final int OBJECT = 9;
+	public static final int BOOLEAN_ARRAY = 10;
+	public static final int BYTE_ARRAY = 11;
+	public static final int SHORT_ARRAY = 12;
+	public static final int CHAR_ARRAY = 13;
+	public static final int INT_ARRAY = 14;
+	public static final int LONG_ARRAY = 15;
+	public static final int FLOAT_ARRAY = 16;
+	public static final int DOUBLE_ARRAY = 17;
+	public static final int OBJECT_ARRAY = 18;
+
+	// Array length of null arrays
+	private static final int NULL_LENGTH = -1;
+
+	/**
+	 * Write the header of the properties block of a single class.
+	 */
+	public static void writeHeader(ObjectOutput out, int propertyCount) throws IOException {
+		out.writeByte(FORMAT_VERSION);
+		out.writeShort(propertyCount);
+	}
+
+	/**
+	 * Read the header of the properties block of a single class.
+	 * 
+	 * @return The number of properties in the block.
+	 */
+	public static int readHeader(ObjectInput in) throws IOException {
+		int version = in.readUnsignedByte();
+		if (version > FORMAT_VERSION) {
+			throw new InvalidObjectException("unsupported bean format version " + version);
+		}
+		return in.readUnsignedShort();
+	}
+
+	/**
+	 * Write the header of a single property.
+	 */
+	public static void writeProperty(ObjectOutput out, int tag, int wireType) throws IOException {
+		out.writeInt(tag);
+		out.writeByte(wireType);
+	}
+
+	/**
+	 * Skip the value of a property that the reader does not know.
+	 */
+	public static void skip(ObjectInput in, int wireType) throws IOException, ClassNotFoundException {
+		switch (wireType) {
+		case BOOLEAN:
+		case BYTE:
+			in.readByte();
+			break;
+		case SHORT:
+		case CHAR:
+			in.readShort();
+			break;
+		case INT:
+		case FLOAT:
+			in.readInt();
+			break;
+		case LONG:
+		case DOUBLE:
+			in.readLong();
+			break;
+		case OBJECT:
+			in.readObject();
+			break;
+		case BOOLEAN_ARRAY:
+		case BYTE_ARRAY:
+			skipBytes(in, in.readInt());
+			break;
+		case SHORT_ARRAY:
+		case CHAR_ARRAY:
+			skipBytes(in, in.readInt() * 2);
+			break;
+		case INT_ARRAY:
+		case FLOAT_ARRAY:
+			skipBytes(in, in.readInt() * 4);
+			break;
+		case LONG_ARRAY:
+		case DOUBLE_ARRAY:
+			skipBytes(in, in.readInt() * 8);
+			break;
+		case OBJECT_ARRAY:
+			for (int i = in.readInt(); i > 0; --i) {
+				in.readObject();
+			}
+			break;
+		default:
+			throw new InvalidObjectException("unknown wire type " + wireType);
+		}
+	}
+
+	private static void skipBytes(ObjectInput in, int n) throws IOException {
+		while (n > 0) {
+			int skipped = (int) in.skip(n);
+			if (skipped <= 0) {
+				in.readByte();
+				skipped = 1;
+			}
+			n -= skipped;
+		}
+	}
+
+	public static void write(ObjectOutput out, boolean[] v) throws IOException {
+		if (v == null) {
+			out.writeInt(NULL_LENGTH);
+			return;
+		}
+		out.writeInt(v.length);
+		for (boolean e : v) {
+			out.writeBoolean(e);
+		}
+	}
+
+	public static void write(ObjectOutput out, byte[] v) throws IOException {
+		if (v == null) {
+			out.writeInt(NULL_LENGTH);
+			return;
+		}
+		out.writeInt(v.length);
+		out.write(v);
+	}
+
+	public static void write(ObjectOutput out, short[] v) throws IOException {
+		if (v == null) {
+			out.writeInt(NULL_LENGTH);
+			return;
+		}
+		out.writeInt(v.length);
+		for (short e : v) {
+			out.writeShort(e);
+		}
+	}
+
+	public static void write(ObjectOutput out, char[] v) throws IOException {
+		if (v == null) {
+			out.writeInt(NULL_LENGTH);
+			return;
+		}
+		out.writeInt(v.length);
+		for (char e : v) {
+			out.writeChar(e);
+		}
+	}
+
+	public static void write(ObjectOutput out, int[] v) throws IOException {
+		if (v == null) {
+			out.writeInt(NULL_LENGTH);
+			return;
+		}
+		out.writeInt(v.length);
+		for (int e : v) {
+			out.writeInt(e);
+		}
+	}
+
+	public static void write(ObjectOutput out, long[] v) throws IOException {
+		if (v == null) {
+			out.writeInt(NULL_LENGTH);
+			return;
+		}
+		out.writeInt(v.length);
+		for (long e : v) {
+			out.writeLong(e);
+		}
+	}
+
+	public static void write(ObjectOutput out, float[] v) throws IOException {
+		if (v == null) {
+			out.writeInt(NULL_LENGTH);
+			return;
+		}
+		out.writeInt(v.length);
+		for (float e : v) {
+			out.writeFloat(e);
+		}
+	}
+
+	public static void write(ObjectOutput out, double[] v) throws IOException {
+		if (v == null) {
+			out.writeInt(NULL_LENGTH);
+			return;
+		}
+		out.writeInt(v.length);
+		for (double e : v) {
+			out.writeDouble(e);
+		}
+	}
+
+	public static void write(ObjectOutput out, Object[] v) throws IOException {
+		if (v == null) {
+			out.writeInt(NULL_LENGTH);
+			return;
+		}
+		out.writeInt(v.length);
+		for (Object e : v) {
+			out.writeObject(e);
+		}
+	}
+
+	public static boolean[] readBooleanArray(ObjectInput in) throws IOException {
+		int length = in.readInt();
+		if (length == NULL_LENGTH) {
+			return null;
+		}
+		boolean[] v = new boolean[length];
+		for (int i = 0; i < length; ++i) {
+			v[i] = in.readBoolean();
+		}
+		return v;
+	}
+
+	public static byte[] readByteArray(ObjectInput in) throws IOException {
+		int length = in.readInt();
+		if (length == NULL_LENGTH) {
+			return null;
+		}
+		byte[] v = new byte[length];
+		in.readFully(v);
+		return v;
+	}
+
+	public static short[] readShortArray(ObjectInput in) throws IOException {
+		int length = in.readInt();
+		if (length == NULL_LENGTH) {
+			return null;
+		}
+		short[] v = new short[length];
+		for (int i = 0; i < length; ++i) {
+			v[i] = in.readShort();
+		}
+		return v;
+	}
+
+	public static char[] readCharArray(ObjectInput in) throws IOException {
+		int length = in.readInt();
+		if (length == NULL_LENGTH) {
+			return null;
+		}
+		char[] v = new char[length];
+		for (int i = 0; i < length; ++i) {
+			v[i] = in.readChar();
+		}
+		return v;
+	}
+
+	public static int[] readIntArray(ObjectInput in) throws IOException {
+		int length = in.readInt();
+		if (length == NULL_LENGTH) {
+			return null;
+		}
+		int[] v = new int[length];
+		for (int i = 0; i < length; ++i) {
+			v[i] = in.readInt();
+		}
+		return v;
+	}
+
+	public static long[] readLongArray(ObjectInput in) throws IOException {
+		int length = in.readInt();
+		if (length == NULL_LENGTH) {
+			return null;
+		}
+		long[] v = new long[length];
+		for (int i = 0; i < length; ++i) {
+			v[i] = in.readLong();
+		}
+		return v;
+	}
+
+	public static float[] readFloatArray(ObjectInput in) throws IOException {
+		int length = in.readInt();
+		if (length == NULL_LENGTH) {
+			return null;
+		}
+		float[] v = new float[length];
+		for (int i = 0; i < length; ++i) {
+			v[i] = in.readFloat();
+		}
+		return v;
+	}
+
+	public static double[] readDoubleArray(ObjectInput in) throws IOException {
+		int length = in.readInt();
+		if (length == NULL_LENGTH) {
+			return null;
+		}
+		double[] v = new double[length];
+		for (int i = 0; i < length; ++i) {
+			v[i] = in.readDouble();
+		}
+		return v;
+	}
+
+	/**
+	 * Read an array of objects.
+	 * 
+	 * @param empty
+	 *            An empty array of the expected type, which is used for creating the result.
+	 */
+	public static <T> T[] readObjectArray(ObjectInput in, T[] empty) throws IOException, ClassNotFoundException {
+		int length = in.readInt();
+		if (length == NULL_LENGTH) {
+			return null;
+		}
+		T[] v = Arrays.copyOf(empty, length);
+		for (int i = 0; i < length; ++i) {
+			@SuppressWarnings("unchecked")
+			T e = (T) in.readObject();
+			v[i] = e;
+		}
+		return v;
+	}
+
+}
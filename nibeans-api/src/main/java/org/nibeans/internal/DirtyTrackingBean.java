@@ -0,0 +1,56 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.internal;
+
+/**
+ * Implemented by beans that track changes. Properties are identified by their indexes in the
+ * {@link BeanAccessor} of the bean. A property becomes dirty whenever it is set, even to its current value.
+ * 
+ * @author Tareq Sharafy (tareq.sharafy@sap.com)
+ *
+ */
+public interface DirtyTrackingBean {
+
+	/**
+	 * Whether any property is dirty.
+	 */
+	public boolean isDirty();
+
+	public boolean isDirty(int index);
+
+	/**
+	 * The index of the first dirty property at or after the given index, or -1 if there is none. Iterates
+	 * without allocation:
+	 * 
+	 * <pre>
+	 * for (int i = bean.nextDirtyProperty(0); i >= 0; i = bean.nextDirtyProperty(i + 1)) {
+	 * 	...
+	 * }
+	 * </pre>
+	 */
+	public int nextDirtyProperty(int fromIndex);
+
+	/**
+	 * The indexes of all the dirty properties, in ascending order.
+	 */
+	public int[] dirtyProperties();
+
+	/**
+	 * Mark all the properties as clean.
+	 */
+	public void clearDirty();
+
+}
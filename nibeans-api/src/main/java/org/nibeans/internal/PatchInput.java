@@ -0,0 +1,337 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+
+/**
+ * Reads the patches written by {@link PatchOutput}. Malformed patches are reported with an {@link IOException}.
+ * 
+ * @author Tareq Sharafy (tareq.sharafy@sap.com)
+ *
+ */
+public final class PatchInput {
+
+	private final byte[] buf;
+	private final int limit;
+	private int pos;
+
+	public PatchInput(byte[] patch) {
+		this(patch, 0, patch.length);
+	}
+
+	public PatchInput(byte[] patch, int offset, int length) {
+		this.buf = patch;
+		this.pos = offset;
+		this.limit = offset + length;
+	}
+
+	/**
+	 * Read the property count and skip the bitmap that follows it.
+	 * 
+	 * @return the offset of the bitmap, to pass to {@link #isMarked(int, int)}.
+	 */
+	public int readBitmap(int propertyCount) throws IOException {
+		int count = readVarInt();
+		if (count != propertyCount) {
+			throw error("patch of " + count + " properties where " + propertyCount + " are expected");
+		}
+		int bitmap = pos;
+		require((count + 7) >>> 3);
+		pos += (count + 7) >>> 3;
+		return bitmap;
+	}
+
+	public boolean isMarked(int bitmap, int index) {
+		return (buf[bitmap + (index >>> 3)] & (1 << (index & 7))) != 0;
+	}
+
+	/**
+	 * Read the flag that precedes a nullable value.
+	 * 
+	 * @return true if the value is null.
+	 */
+	public boolean nextNull() throws IOException {
+		return nextByte() == 0;
+	}
+
+	public boolean nextBoolean() throws IOException {
+		return nextByte() != 0;
+	}
+
+	public byte nextByte() throws IOException {
+		require(1);
+		return buf[pos++];
+	}
+
+	public short nextShort() throws IOException {
+		int v = readVarInt();
+		return (short) ((v >>> 1) ^ -(v & 1));
+	}
+
+	public char nextChar() throws IOException {
+		return (char) readVarInt();
+	}
+
+	public int nextInt() throws IOException {
+		int v = readVarInt();
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	public long nextLong() throws IOException {
+		long v = readVarLong();
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	public float nextFloat() throws IOException {
+		return Float.intBitsToFloat(readFixedInt());
+	}
+
+	public double nextDouble() throws IOException {
+		int low = readFixedInt();
+		return Double.longBitsToDouble((low & 0xffffffffL) | ((long) readFixedInt() << 32));
+	}
+
+	public String nextString() throws IOException {
+		int length = readLength();
+		if (length < 0) {
+			return null;
+		}
+		char[] chars = new char[length];
+		byte[] buf = this.buf;
+		for (int i = 0; i < length; ++i) {
+			require(1);
+			int b = buf[pos++];
+			if (b >= 0) {
+				chars[i] = (char) b;
+			} else if ((b & 0xe0) == 0xc0) {
+				require(1);
+				chars[i] = (char) (((b & 0x1f) << 6) | (buf[pos++] & 0x3f));
+			} else if ((b & 0xf0) == 0xe0) {
+				require(2);
+				chars[i] = (char) (((b & 0x0f) << 12) | ((buf[pos] & 0x3f) << 6) | (buf[pos + 1] & 0x3f));
+				pos += 2;
+			} else {
+				--pos;
+				throw error("bad string encoding");
+			}
+		}
+		return new String(chars);
+	}
+
+	public <E extends Enum<E>> E nextEnum(Class<E> enumType) throws IOException {
+		int v = readVarInt();
+		if (v == 0) {
+			return null;
+		}
+		E[] constants = enumType.getEnumConstants();
+		if (v > constants.length) {
+			throw error("unknown ordinal " + (v - 1) + " of " + enumType.getName());
+		}
+		return constants[v - 1];
+	}
+
+	public boolean[] nextBooleanArray() throws IOException {
+		int length = readLength();
+		if (length < 0) {
+			return null;
+		}
+		boolean[] v = new boolean[length];
+		for (int i = 0; i < length; ++i) {
+			v[i] = nextBoolean();
+		}
+		return v;
+	}
+
+	public byte[] nextByteArray() throws IOException {
+		int length = readLength();
+		if (length < 0) {
+			return null;
+		}
+		byte[] v = new byte[length];
+		System.arraycopy(buf, pos, v, 0, length);
+		pos += length;
+		return v;
+	}
+
+	public short[] nextShortArray() throws IOException {
+		int length = readLength();
+		if (length < 0) {
+			return null;
+		}
+		short[] v = new short[length];
+		for (int i = 0; i < length; ++i) {
+			v[i] = nextShort();
+		}
+		return v;
+	}
+
+	public char[] nextCharArray() throws IOException {
+		int length = readLength();
+		if (length < 0) {
+			return null;
+		}
+		char[] v = new char[length];
+		for (int i = 0; i < length; ++i) {
+			v[i] = nextChar();
+		}
+		return v;
+	}
+
+	public int[] nextIntArray() throws IOException {
+		int length = readLength();
+		if (length < 0) {
+			return null;
+		}
+		int[] v = new int[length];
+		for (int i = 0; i < length; ++i) {
+			v[i] = nextInt();
+		}
+		return v;
+	}
+
+	public long[] nextLongArray() throws IOException {
+		int length = readLength();
+		if (length < 0) {
+			return null;
+		}
+		long[] v = new long[length];
+		for (int i = 0; i < length; ++i) {
+			v[i] = nextLong();
+		}
+		return v;
+	}
+
+	public float[] nextFloatArray() throws IOException {
+		int length = readLength();
+		if (length < 0) {
+			return null;
+		}
+		float[] v = new float[length];
+		for (int i = 0; i < length; ++i) {
+			v[i] = nextFloat();
+		}
+		return v;
+	}
+
+	public double[] nextDoubleArray() throws IOException {
+		int length = readLength();
+		if (length < 0) {
+			return null;
+		}
+		double[] v = new double[length];
+		for (int i = 0; i < length; ++i) {
+			v[i] = nextDouble();
+		}
+		return v;
+	}
+
+	public String[] nextStringArray() throws IOException {
+		int length = readLength();
+		if (length < 0) {
+			return null;
+		}
+		String[] v = new String[length];
+		for (int i = 0; i < length; ++i) {
+			v[i] = nextString();
+		}
+		return v;
+	}
+
+	/**
+	 * Read a value written by {@link PatchOutput#serializedValue(Object)}.
+	 */
+	public Object nextSerialized() throws IOException {
+		int length = readLength();
+		if (length < 0) {
+			return null;
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(buf, pos, length))) {
+			pos += length;
+			return in.readObject();
+		} catch (ClassNotFoundException e) {
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 * Make sure that the whole patch was read.
+	 */
+	public void end() throws IOException {
+		if (pos != limit) {
+			throw error("unexpected trailing bytes");
+		}
+	}
+
+	/**
+	 * Read the length of a string or an array, which needs at least a byte per element.
+	 * 
+	 * @return the length, or -1 for null.
+	 */
+	private int readLength() throws IOException {
+		int length = readVarInt() - 1;
+		if (length < -1 || length > limit - pos) {
+			throw error("length " + length + " exceeds the patch");
+		}
+		return length;
+	}
+
+	private int readVarInt() throws IOException {
+		int v = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = nextByte();
+			v |= (b & 0x7f) << shift;
+			if (b >= 0) {
+				return v;
+			}
+		}
+		throw error("malformed variable length integer");
+	}
+
+	private long readVarLong() throws IOException {
+		long v = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = nextByte();
+			v |= (long) (b & 0x7f) << shift;
+			if (b >= 0) {
+				return v;
+			}
+		}
+		throw error("malformed variable length integer");
+	}
+
+	private int readFixedInt() throws IOException {
+		require(4);
+		int v = (buf[pos] & 0xff) | ((buf[pos + 1] & 0xff) << 8) | ((buf[pos + 2] & 0xff) << 16)
+				| (buf[pos + 3] << 24);
+		pos += 4;
+		return v;
+	}
+
+	private void require(int n) throws IOException {
+		if (limit - pos < n) {
+			throw new EOFException("truncated patch at offset " + pos);
+		}
+	}
+
+	private IOException error(String message) {
+		return new IOException(message + " at offset " + pos);
+	}
+
+}
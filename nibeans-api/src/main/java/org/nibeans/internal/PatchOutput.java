@@ -0,0 +1,389 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
+/**
+ * Writes the compact binary patches of generated beans into a growing buffer. A patch holds the number of
+ * properties of the bean, a bitmap of the properties it contains and their values, in the order of the
+ * properties. Integral values are written as variable length integers, zig-zag encoded when signed, floating
+ * point values by their bits, and strings as the UTF-8 encoding of their chars. Strings, arrays and enums write
+ * their length or ordinal plus one, with zero for null, and other nullable values are preceded by a flag byte.
+ * 
+ * @author Tareq Sharafy (tareq.sharafy@sap.com)
+ *
+ */
+public final class PatchOutput {
+
+	private byte[] buf;
+	private int size;
+
+	public PatchOutput() {
+		this(64);
+	}
+
+	public PatchOutput(int capacity) {
+		buf = new byte[capacity];
+	}
+
+	/**
+	 * Write the property count followed by an empty bitmap.
+	 * 
+	 * @return the offset of the bitmap, to pass to {@link #mark(int, int)}.
+	 */
+	public int beginBitmap(int propertyCount) {
+		writeVarInt(propertyCount);
+		int bitmap = size;
+		int length = (propertyCount + 7) >>> 3;
+		ensureCapacity(length);
+		Arrays.fill(buf, size, size + length, (byte) 0);
+		size += length;
+		return bitmap;
+	}
+
+	public void mark(int bitmap, int index) {
+		buf[bitmap + (index >>> 3)] |= 1 << (index & 7);
+	}
+
+	public void nullValue() {
+		writeByte(0);
+	}
+
+	/**
+	 * Precede a nullable value that is not null.
+	 */
+	public void beginValue() {
+		writeByte(1);
+	}
+
+	public void value(boolean v) {
+		writeByte(v ? 1 : 0);
+	}
+
+	public void value(byte v) {
+		writeByte(v);
+	}
+
+	public void value(short v) {
+		writeVarInt((v << 1) ^ (v >> 31));
+	}
+
+	public void value(char v) {
+		writeVarInt(v);
+	}
+
+	public void value(int v) {
+		writeVarInt((v << 1) ^ (v >> 31));
+	}
+
+	public void value(long v) {
+		writeVarLong((v << 1) ^ (v >> 63));
+	}
+
+	public void value(float v) {
+		writeFixedInt(Float.floatToIntBits(v));
+	}
+
+	public void value(double v) {
+		writeFixedLong(Double.doubleToLongBits(v));
+	}
+
+	public void value(Boolean v) {
+		if (v == null) {
+			nullValue();
+		} else {
+			beginValue();
+			value(v.booleanValue());
+		}
+	}
+
+	public void value(Byte v) {
+		if (v == null) {
+			nullValue();
+		} else {
+			beginValue();
+			value(v.byteValue());
+		}
+	}
+
+	public void value(Short v) {
+		if (v == null) {
+			nullValue();
+		} else {
+			beginValue();
+			value(v.shortValue());
+		}
+	}
+
+	public void value(Character v) {
+		if (v == null) {
+			nullValue();
+		} else {
+			beginValue();
+			value(v.charValue());
+		}
+	}
+
+	public void value(Integer v) {
+		if (v == null) {
+			nullValue();
+		} else {
+			beginValue();
+			value(v.intValue());
+		}
+	}
+
+	public void value(Long v) {
+		if (v == null) {
+			nullValue();
+		} else {
+			beginValue();
+			value(v.longValue());
+		}
+	}
+
+	public void value(Float v) {
+		if (v == null) {
+			nullValue();
+		} else {
+			beginValue();
+			value(v.floatValue());
+		}
+	}
+
+	public void value(Double v) {
+		if (v == null) {
+			nullValue();
+		} else {
+			beginValue();
+			value(v.doubleValue());
+		}
+	}
+
+	public void value(String v) {
+		if (v == null) {
+			writeVarInt(0);
+			return;
+		}
+		int length = v.length();
+		writeVarInt(length + 1);
+		ensureCapacity(length * 3);
+		byte[] buf = this.buf;
+		int size = this.size;
+		for (int i = 0; i < length; ++i) {
+			char c = v.charAt(i);
+			if (c < 0x80) {
+				buf[size++] = (byte) c;
+			} else if (c < 0x800) {
+				buf[size++] = (byte) (0xc0 | (c >> 6));
+				buf[size++] = (byte) (0x80 | (c & 0x3f));
+			} else {
+				buf[size++] = (byte) (0xe0 | (c >> 12));
+				buf[size++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+				buf[size++] = (byte) (0x80 | (c & 0x3f));
+			}
+		}
+		this.size = size;
+	}
+
+	public void value(Enum<?> v) {
+		writeVarInt(v == null ? 0 : v.ordinal() + 1);
+	}
+
+	public void value(boolean[] v) {
+		if (v == null) {
+			writeVarInt(0);
+			return;
+		}
+		writeVarInt(v.length + 1);
+		ensureCapacity(v.length);
+		for (boolean e : v) {
+			buf[size++] = (byte) (e ? 1 : 0);
+		}
+	}
+
+	public void value(byte[] v) {
+		if (v == null) {
+			writeVarInt(0);
+			return;
+		}
+		writeVarInt(v.length + 1);
+		ensureCapacity(v.length);
+		System.arraycopy(v, 0, buf, size, v.length);
+		size += v.length;
+	}
+
+	public void value(short[] v) {
+		if (v == null) {
+			writeVarInt(0);
+			return;
+		}
+		writeVarInt(v.length + 1);
+		for (short e : v) {
+			value(e);
+		}
+	}
+
+	public void value(char[] v) {
+		if (v == null) {
+			writeVarInt(0);
+			return;
+		}
+		writeVarInt(v.length + 1);
+		for (char e : v) {
+			value(e);
+		}
+	}
+
+	public void value(int[] v) {
+		if (v == null) {
+			writeVarInt(0);
+			return;
+		}
+		writeVarInt(v.length + 1);
+		for (int e : v) {
+			value(e);
+		}
+	}
+
+	public void value(long[] v) {
+		if (v == null) {
+			writeVarInt(0);
+			return;
+		}
+		writeVarInt(v.length + 1);
+		for (long e : v) {
+			value(e);
+		}
+	}
+
+	public void value(float[] v) {
+		if (v == null) {
+			writeVarInt(0);
+			return;
+		}
+		writeVarInt(v.length + 1);
+		for (float e : v) {
+			value(e);
+		}
+	}
+
+	public void value(double[] v) {
+		if (v == null) {
+			writeVarInt(0);
+			return;
+		}
+		writeVarInt(v.length + 1);
+		for (double e : v) {
+			value(e);
+		}
+	}
+
+	public void value(String[] v) {
+		if (v == null) {
+			writeVarInt(0);
+			return;
+		}
+		writeVarInt(v.length + 1);
+		for (String e : v) {
+			value(e);
+		}
+	}
+
+	/**
+	 * Write a value of a type without a compact form through java serialization.
+	 * 
+	 * @throws IllegalArgumentException if the value cannot be serialized.
+	 */
+	public void serializedValue(Object v) {
+		if (v == null) {
+			writeVarInt(0);
+			return;
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(v);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("cannot serialize a value of " + v.getClass().getName(), e);
+		}
+		writeVarInt(bytes.size() + 1);
+		ensureCapacity(bytes.size());
+		System.arraycopy(bytes.toByteArray(), 0, buf, size, bytes.size());
+		size += bytes.size();
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public byte[] toByteArray() {
+		return Arrays.copyOf(buf, size);
+	}
+
+	/**
+	 * Discard the content, keeping the buffer for the next patch.
+	 */
+	public void reset() {
+		size = 0;
+	}
+
+	private void writeByte(int v) {
+		ensureCapacity(1);
+		buf[size++] = (byte) v;
+	}
+
+	private void writeVarInt(int v) {
+		ensureCapacity(5);
+		while ((v & ~0x7f) != 0) {
+			buf[size++] = (byte) ((v & 0x7f) | 0x80);
+			v >>>= 7;
+		}
+		buf[size++] = (byte) v;
+	}
+
+	private void writeVarLong(long v) {
+		ensureCapacity(10);
+		while ((v & ~0x7fL) != 0) {
+			buf[size++] = (byte) ((v & 0x7f) | 0x80);
+			v >>>= 7;
+		}
+		buf[size++] = (byte) v;
+	}
+
+	private void writeFixedInt(int v) {
+		ensureCapacity(4);
+		buf[size++] = (byte) v;
+		buf[size++] = (byte) (v >>> 8);
+		buf[size++] = (byte) (v >>> 16);
+		buf[size++] = (byte) (v >>> 24);
+	}
+
+	private void writeFixedLong(long v) {
+		writeFixedInt((int) v);
+		writeFixedInt((int) (v >>> 32));
+	}
+
+	private void ensureCapacity(int n) {
+		if (size + n > buf.length) {
+			buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + n));
+		}
+	}
+
+}
@@ -0,0 +1,284 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.internal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A file of records of a fixed size, mapped to memory, which backs the generated bean stores. The file starts with
+ * a header that identifies the layout of the records and holds their count, followed by the records. Records are
+ * mapped in segments of at most 1 GB, and a segment is mapped again with twice the size as records are appended.
+ * All values are little endian.
+ * <p>
+ * Appends must not run concurrently with other operations, while existing records can be read by several threads.
+ * A read-only file sees the records that existed when it was opened.
+ * 
+ * @author Tareq Sharafy (tareq.sharafy@sap.com)
+ *
+ */
+public final class RecordFile implements Closeable {
+
+	/**
+	 * The size of the header, before the first record.
+	 */
+	public static final int HEADER_SIZE = 32;
+
+	// "NIBS"
+	private static final int MAGIC = 0x4E494253;
+	private static final int VERSION = 1;
+	private static final int LAYOUT_OFFSET = 8;
+	private static final int RECORD_SIZE_OFFSET = 16;
+	private static final int COUNT_OFFSET = 24;
+	// Buffers are indexed by int
+	private static final int MAX_SEGMENT_BYTES = 1 << 30;
+	private static final int MIN_MAPPING_BYTES = 1 << 16;
+
+	private final Path path;
+	private final FileChannel channel;
+	private final boolean readOnly;
+	private final int recordSize;
+	private final int segmentShift;
+	private final long segmentMask;
+	private final MappedByteBuffer header;
+	private MappedByteBuffer[] segments = new MappedByteBuffer[0];
+	// The records that fit in the mapped segments, which are full except for the last one
+	private long mappedRecords;
+	private long size;
+
+	private RecordFile(Path path, FileChannel channel, long layout, int recordSize, boolean readOnly)
+			throws IOException {
+		this.path = path;
+		this.channel = channel;
+		this.readOnly = readOnly;
+		this.recordSize = recordSize;
+		int recordsPerSegment = Integer.highestOneBit(MAX_SEGMENT_BYTES / recordSize);
+		segmentShift = Integer.numberOfTrailingZeros(recordsPerSegment);
+		segmentMask = recordsPerSegment - 1;
+		long fileSize = channel.size();
+		if (fileSize == 0 && !readOnly) {
+			header = channel.map(MapMode.READ_WRITE, 0, HEADER_SIZE);
+			header.order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(0, MAGIC);
+			header.putInt(4, VERSION);
+			header.putLong(LAYOUT_OFFSET, layout);
+			header.putInt(RECORD_SIZE_OFFSET, recordSize);
+			header.putLong(COUNT_OFFSET, 0);
+			return;
+		}
+		if (fileSize < HEADER_SIZE) {
+			throw new IOException(path + " is not a record file");
+		}
+		header = channel.map(readOnly ? MapMode.READ_ONLY : MapMode.READ_WRITE, 0, HEADER_SIZE);
+		header.order(ByteOrder.LITTLE_ENDIAN);
+		if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+			throw new IOException(path + " is not a record file");
+		}
+		if (header.getLong(LAYOUT_OFFSET) != layout || header.getInt(RECORD_SIZE_OFFSET) != recordSize) {
+			throw new IOException(path + " holds records of another layout");
+		}
+		long count = header.getLong(COUNT_OFFSET);
+		if (count < 0 || HEADER_SIZE + count * recordSize > fileSize) {
+			throw new IOException(path + " is truncated");
+		}
+		ensureMapped(count);
+		size = count;
+	}
+
+	/**
+	 * Open a file of records, creating it unless it is read-only.
+	 * 
+	 * @param layout
+	 *            Identifies the layout of the records. Files of other layouts are rejected.
+	 * @param recordSize
+	 *            The size of a record in bytes.
+	 * @throws IOException
+	 *             If the file cannot be opened, or holds records of another layout.
+	 */
+	public static RecordFile open(Path path, long layout, int recordSize, boolean readOnly) throws IOException {
+		if (recordSize <= 0 || recordSize > MAX_SEGMENT_BYTES) {
+			throw new IllegalArgumentException("record size " + recordSize);
+		}
+		FileChannel channel = readOnly ? FileChannel.open(path, StandardOpenOption.READ)
+				: FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+		try {
+			return new RecordFile(path, channel, layout, recordSize, readOnly);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	public Path getPath() {
+		return path;
+	}
+
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+
+	/**
+	 * The number of records.
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * The buffer that holds an existing record, at {@link #offset(long)}.
+	 */
+	public ByteBuffer segment(long index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("record " + index + " of " + size);
+		}
+		return segments[(int) (index >>> segmentShift)];
+	}
+
+	/**
+	 * The offset of a record in its buffer.
+	 */
+	public int offset(long index) {
+		return (int) (index & segmentMask) * recordSize;
+	}
+
+	/**
+	 * The buffer that holds the next record, at {@link #offset(long)} of {@link #size()}. The record is added by
+	 * {@link #commitAppend()} once written.
+	 */
+	public ByteBuffer appendSegment() throws IOException {
+		if (readOnly) {
+			throw new IOException(path + " is read-only");
+		}
+		ensureMapped(size + 1);
+		return segments[(int) (size >>> segmentShift)];
+	}
+
+	/**
+	 * Add the record written to {@link #appendSegment()}.
+	 * 
+	 * @return The index of the record.
+	 */
+	public long commitAppend() {
+		long index = size++;
+		header.putLong(COUNT_OFFSET, size);
+		return index;
+	}
+
+	/**
+	 * Write the changes to the storage device.
+	 */
+	public void force() {
+		if (readOnly) {
+			return;
+		}
+		for (MappedByteBuffer segment : segments) {
+			segment.force();
+		}
+		header.force();
+	}
+
+	/**
+	 * Close the file. The mapped buffers are released when they are no longer referenced.
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private void ensureMapped(long records) throws IOException {
+		while (mappedRecords < records) {
+			int segment = (int) (mappedRecords >>> segmentShift);
+			long segmentStart = (long) segment << segmentShift;
+			long recordsPerSegment = segmentMask + 1;
+			long mapped = Math.min(records - segmentStart, recordsPerSegment);
+			if (!readOnly) {
+				// Leave room for further appends
+				long current = mappedRecords - segmentStart;
+				mapped = Math.min(Math.max(mapped, Math.max(2 * current, MIN_MAPPING_BYTES / recordSize)),
+						recordsPerSegment);
+			}
+			long position = HEADER_SIZE + segmentStart * recordSize;
+			long bytes = mapped * recordSize;
+			if (!readOnly && channel.size() < position + bytes) {
+				// Grow the file by its last byte, which leaves the rest sparse where supported
+				channel.write(ByteBuffer.allocate(1), position + bytes - 1);
+			}
+			MappedByteBuffer buffer = channel.map(readOnly ? MapMode.READ_ONLY : MapMode.READ_WRITE, position, bytes);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			if (segment == segments.length) {
+				segments = Arrays.copyOf(segments, segment + 1);
+			}
+			segments[segment] = buffer;
+			mappedRecords = segmentStart + mapped;
+		}
+	}
+
+	/**
+	 * The size of a string field of at most the given number of characters: a short length, negative for null,
+	 * followed by the characters.
+	 */
+	public static int stringSize(int maxLength) {
+		return 2 + 2 * maxLength;
+	}
+
+	public static String getString(ByteBuffer buffer, int offset) {
+		int length = buffer.getShort(offset);
+		if (length < 0) {
+			return null;
+		}
+		char[] chars = new char[length];
+		for (int i = 0; i < length; ++i) {
+			chars[i] = buffer.getChar(offset + 2 + 2 * i);
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             If the string is longer than the given number of characters.
+	 */
+	public static void putString(ByteBuffer buffer, int offset, int maxLength, String value) {
+		if (value == null) {
+			buffer.putShort(offset, (short) -1);
+			return;
+		}
+		int length = value.length();
+		if (length > maxLength) {
+			throw new IllegalArgumentException("string of length " + length + " exceeds the maximum of " + maxLength);
+		}
+		buffer.putShort(offset, (short) length);
+		for (int i = 0; i < length; ++i) {
+			buffer.putChar(offset + 2 + 2 * i, value.charAt(i));
+		}
+	}
+
+	public static boolean getBoolean(ByteBuffer buffer, int offset) {
+		return buffer.get(offset) != 0;
+	}
+
+	public static void putBoolean(ByteBuffer buffer, int offset, boolean value) {
+		buffer.put(offset, value ? (byte) 1 : 0);
+	}
+
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.internal;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A counter for frequent concurrent increments and rare reads. It starts as a single value, and spreads over
+ * stripes on separate cache lines, one per thread hash, once threads contend on it.
+ * 
+ * @author Tareq Sharafy (tareq.sharafy@sap.com)
+ *
+ */
+public final class StripedCounter {
+
+	private static final AtomicLongFieldUpdater<StripedCounter> BASE = AtomicLongFieldUpdater
+			.newUpdater(StripedCounter.class, "base");
+	private static final AtomicReferenceFieldUpdater<StripedCounter, AtomicLongArray> CELLS = AtomicReferenceFieldUpdater
+			.newUpdater(StripedCounter.class, AtomicLongArray.class, "cells");
+	// Longs in a cache line, so that neighbour stripes never share one
+	private static final int SPACING = 8;
+	private static final int STRIPES = Integer.highestOneBit(Math.max(1,
+			Math.min(Runtime.getRuntime().availableProcessors(), 64)) * 2 - 1);
+
+	private volatile long base;
+	private volatile AtomicLongArray cells;
+
+	public void increment() {
+		add(1);
+	}
+
+	public void add(long x) {
+		AtomicLongArray c = cells;
+		if (c == null) {
+			long b = base;
+			if (BASE.compareAndSet(this, b, b + x)) {
+				return;
+			}
+			CELLS.compareAndSet(this, null, new AtomicLongArray(STRIPES * SPACING));
+			c = cells;
+		}
+		c.getAndAdd(stripe() * SPACING, x);
+	}
+
+	public long sum() {
+		long sum = base;
+		AtomicLongArray c = cells;
+		if (c != null) {
+			for (int i = 0; i < STRIPES; ++i) {
+				sum += c.get(i * SPACING);
+			}
+		}
+		return sum;
+	}
+
+	private static int stripe() {
+		// Spread the sequential thread ids over the stripes
+		long h = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+		return (int) (h >>> 32) & (STRIPES - 1);
+	}
+
+}
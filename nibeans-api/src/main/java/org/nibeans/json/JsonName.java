@@ -0,0 +1,64 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.json;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The name of a JSON object member, encoded once ahead of time.
+ * <p/>
+ * 
+ * Generated codecs keep a constant name per property, so writing a name is a plain copy of its quoted form, and
+ * matching a parsed name needs neither decoding nor allocation.
+ * 
+ * @author Tareq Sharafy (tareq.sharafy@sap.com)
+ *
+ */
+public final class JsonName {
+
+	private final String name;
+	final String prefix;
+	final byte[] utf8Prefix;
+
+	public JsonName(String name) {
+		this.name = name;
+		StringBuilder sb = new StringBuilder(name.length() + 3);
+		JsonWriter.appendQuoted(sb, name);
+		sb.append(':');
+		prefix = sb.toString();
+		utf8Prefix = prefix.getBytes(StandardCharsets.UTF_8);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public int hashCode() {
+		return name.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof JsonName && ((JsonName) obj).name.equals(name);
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+}
@@ -0,0 +1,733 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * A streaming JSON reader, the counterpart of {@link JsonWriter}.
+ * <p/>
+ * 
+ * Member names are not turned into strings. {@link #nextNameHash()} returns the same hash as
+ * {@link String#hashCode()} would for the name, so callers can switch on it, and confirm the match with
+ * {@link #nameEquals(JsonName)}:
+ * 
+ * <pre>
+ * in.beginObject();
+ * while (in.hasNext()) {
+ * 	switch (in.nextNameHash()) {
+ * 	case 3355: // "id"
+ * 		if (in.nameEquals(ID)) {
+ * 			id = in.nextInt();
+ * 			continue;
+ * 		}
+ * 	}
+ * 	in.skipValue();
+ * }
+ * in.endObject();
+ * </pre>
+ * 
+ * Nullable values are read by checking {@link #nextNull()} first. Errors in the input are reported as
+ * {@link IOException}s that mention the offending offset.
+ * 
+ * @author Tareq Sharafy (tareq.sharafy@sap.com)
+ *
+ */
+public final class JsonReader implements Closeable {
+
+	private static final int BUFFER_SIZE = 2048;
+
+	// One of the sources, or neither when reading from a char sequence
+	private final InputStream stream;
+	private final Reader reader;
+	private final byte[] bytes;
+	private int bytesPos;
+	private int bytesLimit;
+	private char[] buf;
+	private int pos;
+	private int limit;
+	// The input offset of the buffer start, for error messages
+	private long bufOffset;
+	private boolean needsComma;
+	// The last member name
+	private char[] name = new char[32];
+	private int nameLength;
+	// String and number values
+	private char[] token = new char[32];
+	private int tokenLength;
+
+	private JsonReader(InputStream stream, Reader reader, char[] text) {
+		this.stream = stream;
+		this.reader = reader;
+		bytes = stream != null ? new byte[BUFFER_SIZE] : null;
+		if (text != null) {
+			buf = text;
+			limit = text.length;
+		} else {
+			buf = new char[BUFFER_SIZE];
+		}
+	}
+
+	/**
+	 * Create a reader of UTF-8 encoded JSON.
+	 */
+	public static JsonReader from(InputStream in) {
+		return new JsonReader(in, null, null);
+	}
+
+	public static JsonReader from(Reader in) {
+		return new JsonReader(null, in, null);
+	}
+
+	public static JsonReader from(CharSequence text) {
+		return new JsonReader(null, null, text.toString().toCharArray());
+	}
+
+	public void beginObject() throws IOException {
+		expect('{');
+		needsComma = false;
+	}
+
+	public void endObject() throws IOException {
+		expect('}');
+		needsComma = true;
+	}
+
+	public void beginArray() throws IOException {
+		expect('[');
+		needsComma = false;
+	}
+
+	public void endArray() throws IOException {
+		expect(']');
+		needsComma = true;
+	}
+
+	/**
+	 * Whether the current object or array has more members, consuming the separator before the next one.
+	 */
+	public boolean hasNext() throws IOException {
+		int c = peek();
+		if (c == '}' || c == ']') {
+			return false;
+		}
+		if (needsComma) {
+			expect(',');
+		}
+		needsComma = true;
+		return true;
+	}
+
+	/**
+	 * Read the next member name.
+	 * 
+	 * @return The hash of the name, as returned by {@link String#hashCode()}.
+	 */
+	public int nextNameHash() throws IOException {
+		expect('"');
+		int hash = 0;
+		nameLength = 0;
+		for (int c = nextStringChar(); c >= 0; c = nextStringChar()) {
+			if (nameLength == name.length) {
+				name = Arrays.copyOf(name, name.length * 2);
+			}
+			name[nameLength++] = (char) c;
+			hash = 31 * hash + c;
+		}
+		expect(':');
+		return hash;
+	}
+
+	/**
+	 * Whether the last member name read by {@link #nextNameHash()} is the given one.
+	 */
+	public boolean nameEquals(JsonName expected) {
+		String s = expected.getName();
+		if (s.length() != nameLength) {
+			return false;
+		}
+		for (int i = 0; i < nameLength; ++i) {
+			if (s.charAt(i) != name[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public String nextName() throws IOException {
+		nextNameHash();
+		return new String(name, 0, nameLength);
+	}
+
+	/**
+	 * Consume a null value if that is the next one.
+	 * 
+	 * @return Whether a null value was consumed.
+	 */
+	public boolean nextNull() throws IOException {
+		if (peek() != 'n') {
+			return false;
+		}
+		expectLiteral("null");
+		return true;
+	}
+
+	public boolean nextBoolean() throws IOException {
+		int c = peek();
+		if (c == 't') {
+			expectLiteral("true");
+			return true;
+		}
+		if (c == 'f') {
+			expectLiteral("false");
+			return false;
+		}
+		throw error("expected a boolean");
+	}
+
+	public String nextString() throws IOException {
+		if (nextNull()) {
+			return null;
+		}
+		readString();
+		return new String(token, 0, tokenLength);
+	}
+
+	public char nextChar() throws IOException {
+		expect('"');
+		int c = nextStringChar();
+		if (c < 0 || nextStringChar() >= 0) {
+			throw error("expected a single character");
+		}
+		return (char) c;
+	}
+
+	public <E extends Enum<E>> E nextEnum(Class<E> enumType) throws IOException {
+		String name = nextString();
+		if (name == null) {
+			return null;
+		}
+		try {
+			return Enum.valueOf(enumType, name);
+		} catch (IllegalArgumentException e) {
+			throw error("unknown constant " + name + " of " + enumType.getName());
+		}
+	}
+
+	public byte nextByte() throws IOException {
+		long v = nextLong();
+		if (v < Byte.MIN_VALUE || v > Byte.MAX_VALUE) {
+			throw error("byte value out of range");
+		}
+		return (byte) v;
+	}
+
+	public short nextShort() throws IOException {
+		long v = nextLong();
+		if (v < Short.MIN_VALUE || v > Short.MAX_VALUE) {
+			throw error("short value out of range");
+		}
+		return (short) v;
+	}
+
+	public int nextInt() throws IOException {
+		long v = nextLong();
+		if (v < Integer.MIN_VALUE || v > Integer.MAX_VALUE) {
+			throw error("int value out of range");
+		}
+		return (int) v;
+	}
+
+	public long nextLong() throws IOException {
+		readNumber();
+		// Accumulate negatively to cover Long.MIN_VALUE
+		boolean negative = token[0] == '-';
+		int i = negative ? 1 : 0;
+		if (i == tokenLength) {
+			throw error("expected an integer");
+		}
+		long v = 0;
+		for (; i < tokenLength; ++i) {
+			int digit = token[i] - '0';
+			if (digit < 0 || digit > 9) {
+				throw error("expected an integer");
+			}
+			if (v < (Long.MIN_VALUE + digit) / 10) {
+				throw error("long value out of range");
+			}
+			v = v * 10 - digit;
+		}
+		if (!negative) {
+			if (v == Long.MIN_VALUE) {
+				throw error("long value out of range");
+			}
+			v = -v;
+		}
+		return v;
+	}
+
+	public float nextFloat() throws IOException {
+		return (float) nextDouble();
+	}
+
+	public double nextDouble() throws IOException {
+		// Non-finite values are strings
+		if (peek() == '"') {
+			String s = nextString();
+			if (s.equals("NaN") || s.equals("Infinity") || s.equals("-Infinity")) {
+				return Double.parseDouble(s);
+			}
+			throw error("expected a number");
+		}
+		readNumber();
+		try {
+			return Double.parseDouble(new String(token, 0, tokenLength));
+		} catch (NumberFormatException e) {
+			throw error("expected a number");
+		}
+	}
+
+	public boolean[] nextBooleanArray() throws IOException {
+		if (nextNull()) {
+			return null;
+		}
+		boolean[] values = new boolean[8];
+		int n = 0;
+		beginArray();
+		while (hasNext()) {
+			if (n == values.length) {
+				values = Arrays.copyOf(values, n * 2);
+			}
+			values[n++] = nextBoolean();
+		}
+		endArray();
+		return Arrays.copyOf(values, n);
+	}
+
+	public byte[] nextByteArray() throws IOException {
+		if (nextNull()) {
+			return null;
+		}
+		byte[] values = new byte[8];
+		int n = 0;
+		beginArray();
+		while (hasNext()) {
+			if (n == values.length) {
+				values = Arrays.copyOf(values, n * 2);
+			}
+			values[n++] = nextByte();
+		}
+		endArray();
+		return Arrays.copyOf(values, n);
+	}
+
+	public short[] nextShortArray() throws IOException {
+		if (nextNull()) {
+			return null;
+		}
+		short[] values = new short[8];
+		int n = 0;
+		beginArray();
+		while (hasNext()) {
+			if (n == values.length) {
+				values = Arrays.copyOf(values, n * 2);
+			}
+			values[n++] = nextShort();
+		}
+		endArray();
+		return Arrays.copyOf(values, n);
+	}
+
+	public char[] nextCharArray() throws IOException {
+		if (nextNull()) {
+			return null;
+		}
+		char[] values = new char[8];
+		int n = 0;
+		beginArray();
+		while (hasNext()) {
+			if (n == values.length) {
+				values = Arrays.copyOf(values, n * 2);
+			}
+			values[n++] = nextChar();
+		}
+		endArray();
+		return Arrays.copyOf(values, n);
+	}
+
+	public int[] nextIntArray() throws IOException {
+		if (nextNull()) {
+			return null;
+		}
+		int[] values = new int[8];
+		int n = 0;
+		beginArray();
+		while (hasNext()) {
+			if (n == values.length) {
+				values = Arrays.copyOf(values, n * 2);
+			}
+			values[n++] = nextInt();
+		}
+		endArray();
+		return Arrays.copyOf(values, n);
+	}
+
+	public long[] nextLongArray() throws IOException {
+		if (nextNull()) {
+			return null;
+		}
+		long[] values = new long[8];
+		int n = 0;
+		beginArray();
+		while (hasNext()) {
+			if (n == values.length) {
+				values = Arrays.copyOf(values, n * 2);
+			}
+			values[n++] = nextLong();
+		}
+		endArray();
+		return Arrays.copyOf(values, n);
+	}
+
+	public float[] nextFloatArray() throws IOException {
+		if (nextNull()) {
+			return null;
+		}
+		float[] values = new float[8];
+		int n = 0;
+		beginArray();
+		while (hasNext()) {
+			if (n == values.length) {
+				values = Arrays.copyOf(values, n * 2);
+			}
+			values[n++] = nextFloat();
+		}
+		endArray();
+		return Arrays.copyOf(values, n);
+	}
+
+	public double[] nextDoubleArray() throws IOException {
+		if (nextNull()) {
+			return null;
+		}
+		double[] values = new double[8];
+		int n = 0;
+		beginArray();
+		while (hasNext()) {
+			if (n == values.length) {
+				values = Arrays.copyOf(values, n * 2);
+			}
+			values[n++] = nextDouble();
+		}
+		endArray();
+		return Arrays.copyOf(values, n);
+	}
+
+	public String[] nextStringArray() throws IOException {
+		if (nextNull()) {
+			return null;
+		}
+		String[] values = new String[8];
+		int n = 0;
+		beginArray();
+		while (hasNext()) {
+			if (n == values.length) {
+				values = Arrays.copyOf(values, n * 2);
+			}
+			values[n++] = nextString();
+		}
+		endArray();
+		return Arrays.copyOf(values, n);
+	}
+
+	/**
+	 * Skip the next value, including all of its nested values.
+	 */
+	public void skipValue() throws IOException {
+		switch (peek()) {
+		case '{':
+			beginObject();
+			while (hasNext()) {
+				nextNameHash();
+				skipValue();
+			}
+			endObject();
+			break;
+		case '[':
+			beginArray();
+			while (hasNext()) {
+				skipValue();
+			}
+			endArray();
+			break;
+		case '"':
+			expect('"');
+			while (nextStringChar() >= 0) {
+			}
+			break;
+		case 't':
+			expectLiteral("true");
+			break;
+		case 'f':
+			expectLiteral("false");
+			break;
+		case 'n':
+			expectLiteral("null");
+			break;
+		default:
+			readNumber();
+			break;
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (stream != null) {
+			stream.close();
+		} else if (reader != null) {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Read a quoted string into the token buffer.
+	 */
+	private void readString() throws IOException {
+		expect('"');
+		tokenLength = 0;
+		for (int c = nextStringChar(); c >= 0; c = nextStringChar()) {
+			if (tokenLength == token.length) {
+				token = Arrays.copyOf(token, token.length * 2);
+			}
+			token[tokenLength++] = (char) c;
+		}
+	}
+
+	/**
+	 * Read a number into the token buffer.
+	 */
+	private void readNumber() throws IOException {
+		peek();
+		tokenLength = 0;
+		while (fill()) {
+			char c = buf[pos];
+			if ((c < '0' || c > '9') && c != '-' && c != '+' && c != '.' && c != 'e' && c != 'E') {
+				break;
+			}
+			if (tokenLength == token.length) {
+				token = Arrays.copyOf(token, token.length * 2);
+			}
+			token[tokenLength++] = c;
+			++pos;
+		}
+		if (tokenLength == 0) {
+			throw error("expected a value");
+		}
+	}
+
+	/**
+	 * The next character of a string after its opening quote, unescaped.
+	 * 
+	 * @return The character, or -1 at the closing quote.
+	 */
+	private int nextStringChar() throws IOException {
+		if (!fill()) {
+			throw error("unterminated string");
+		}
+		char c = buf[pos++];
+		if (c == '"') {
+			return -1;
+		}
+		if (c != '\\') {
+			return c;
+		}
+		if (!fill()) {
+			throw error("unterminated string");
+		}
+		c = buf[pos++];
+		switch (c) {
+		case 'b':
+			return '\b';
+		case 'f':
+			return '\f';
+		case 'n':
+			return '\n';
+		case 'r':
+			return '\r';
+		case 't':
+			return '\t';
+		case 'u':
+			int v = 0;
+			for (int i = 0; i < 4; ++i) {
+				if (!fill()) {
+					throw error("unterminated string");
+				}
+				int digit = Character.digit(buf[pos++], 16);
+				if (digit < 0) {
+					throw error("bad unicode escape");
+				}
+				v = (v << 4) | digit;
+			}
+			return v;
+		default:
+			return c;
+		}
+	}
+
+	private void expect(char expected) throws IOException {
+		if (peek() != expected) {
+			throw error("expected '" + expected + "'");
+		}
+		++pos;
+	}
+
+	private void expectLiteral(String literal) throws IOException {
+		peek();
+		for (int i = 0; i < literal.length(); ++i) {
+			if (!fill() || buf[pos] != literal.charAt(i)) {
+				throw error("expected " + literal);
+			}
+			++pos;
+		}
+	}
+
+	/**
+	 * The next non-whitespace character, without consuming it.
+	 * 
+	 * @return The character, or -1 at the end of the input.
+	 */
+	private int peek() throws IOException {
+		while (fill()) {
+			char c = buf[pos];
+			if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+				return c;
+			}
+			++pos;
+		}
+		return -1;
+	}
+
+	/**
+	 * Make sure there is at least a single character in the buffer.
+	 * 
+	 * @return false at the end of the input.
+	 */
+	private boolean fill() throws IOException {
+		if (pos < limit) {
+			return true;
+		}
+		bufOffset += limit;
+		pos = 0;
+		limit = 0;
+		int n;
+		if (stream != null) {
+			n = decode();
+		} else if (reader != null) {
+			while ((n = reader.read(buf)) == 0) {
+			}
+		} else {
+			n = -1;
+		}
+		if (n < 0) {
+			return false;
+		}
+		limit = n;
+		return true;
+	}
+
+	/**
+	 * Decode UTF-8 bytes from the stream into the character buffer.
+	 * 
+	 * @return The number of decoded characters, or -1 at the end of the stream.
+	 */
+	private int decode() throws IOException {
+		int n = 0;
+		// Leave room for a surrogate pair
+		while (n < buf.length - 1) {
+			if (bytesPos == bytesLimit) {
+				if (n > 0) {
+					break;
+				}
+				if (!readBytes(1)) {
+					return -1;
+				}
+			}
+			int b = bytes[bytesPos];
+			if (b >= 0) {
+				buf[n++] = (char) b;
+				++bytesPos;
+				continue;
+			}
+			int length = (b & 0xe0) == 0xc0 ? 2 : (b & 0xf0) == 0xe0 ? 3 : (b & 0xf8) == 0xf0 ? 4 : 0;
+			if (length == 0) {
+				throw error("malformed UTF-8 input");
+			}
+			if (bytesLimit - bytesPos < length) {
+				if (n > 0) {
+					break;
+				}
+				if (!readBytes(length)) {
+					throw error("malformed UTF-8 input");
+				}
+			}
+			int cp = b & (0x7f >> length);
+			for (int i = 1; i < length; ++i) {
+				int c = bytes[bytesPos + i];
+				if ((c & 0xc0) != 0x80) {
+					throw error("malformed UTF-8 input");
+				}
+				cp = (cp << 6) | (c & 0x3f);
+			}
+			bytesPos += length;
+			if (cp >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+				buf[n++] = Character.highSurrogate(cp);
+				buf[n++] = Character.lowSurrogate(cp);
+			} else {
+				buf[n++] = (char) cp;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Make sure there are at least the given number of bytes left to decode.
+	 * 
+	 * @return false if the stream ended before.
+	 */
+	private boolean readBytes(int count) throws IOException {
+		int remaining = bytesLimit - bytesPos;
+		System.arraycopy(bytes, bytesPos, bytes, 0, remaining);
+		bytesPos = 0;
+		bytesLimit = remaining;
+		while (bytesLimit < count) {
+			int n = stream.read(bytes, bytesLimit, bytes.length - bytesLimit);
+			if (n < 0) {
+				return false;
+			}
+			bytesLimit += n;
+		}
+		return true;
+	}
+
+	private IOException error(String message) {
+		return new IOException(message + " at offset " + (bufOffset + pos));
+	}
+
+}
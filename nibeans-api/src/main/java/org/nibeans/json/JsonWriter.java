@@ -0,0 +1,537 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.json;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A streaming JSON writer that goes straight to an {@link OutputStream} as UTF-8, or to an {@link Appendable},
+ * without building any intermediate tree.
+ * <p/>
+ * 
+ * Members are separated automatically, so a value only has to follow its name:
+ * 
+ * <pre>
+ * JsonWriter out = JsonWriter.to(stream);
+ * out.beginObject().name("id").value(7).endObject();
+ * out.flush();
+ * </pre>
+ * 
+ * Non-finite floating point values are written as the strings "NaN", "Infinity" and "-Infinity".
+ * 
+ * @author Tareq Sharafy (tareq.sharafy@sap.com)
+ *
+ */
+public abstract class JsonWriter implements Closeable, Flushable {
+
+	private static final String[] ESCAPES = new String[128];
+	static {
+		for (int c = 0; c < 0x20; ++c) {
+			ESCAPES[c] = String.format("\\u%04x", c);
+		}
+		ESCAPES['"'] = "\\\"";
+		ESCAPES['\\'] = "\\\\";
+		ESCAPES['\b'] = "\\b";
+		ESCAPES['\f'] = "\\f";
+		ESCAPES['\n'] = "\\n";
+		ESCAPES['\r'] = "\\r";
+		ESCAPES['\t'] = "\\t";
+	}
+
+	// Room for the digits of Long.MIN_VALUE
+	private final char[] digits = new char[20];
+	private boolean needsComma;
+
+	JsonWriter() {
+	}
+
+	/**
+	 * Create a writer of UTF-8 encoded JSON. The writer buffers its output, call {@link #flush()} when done.
+	 */
+	public static JsonWriter to(OutputStream out) {
+		return new Utf8JsonWriter(out);
+	}
+
+	/**
+	 * Create a writer of JSON text.
+	 */
+	public static JsonWriter to(Appendable out) {
+		return new TextJsonWriter(out);
+	}
+
+	public JsonWriter beginObject() throws IOException {
+		beforeValue();
+		writeAscii('{');
+		needsComma = false;
+		return this;
+	}
+
+	public JsonWriter endObject() throws IOException {
+		writeAscii('}');
+		needsComma = true;
+		return this;
+	}
+
+	public JsonWriter beginArray() throws IOException {
+		beforeValue();
+		writeAscii('[');
+		needsComma = false;
+		return this;
+	}
+
+	public JsonWriter endArray() throws IOException {
+		writeAscii(']');
+		needsComma = true;
+		return this;
+	}
+
+	public JsonWriter name(JsonName name) throws IOException {
+		if (needsComma) {
+			writeAscii(',');
+		}
+		writeName(name);
+		needsComma = false;
+		return this;
+	}
+
+	public JsonWriter name(String name) throws IOException {
+		if (needsComma) {
+			writeAscii(',');
+		}
+		writeQuoted(name);
+		writeAscii(':');
+		needsComma = false;
+		return this;
+	}
+
+	public JsonWriter nullValue() throws IOException {
+		beforeValue();
+		writeAscii("null");
+		return this;
+	}
+
+	public JsonWriter value(boolean v) throws IOException {
+		beforeValue();
+		writeAscii(v ? "true" : "false");
+		return this;
+	}
+
+	public JsonWriter value(char v) throws IOException {
+		beforeValue();
+		writeQuoted(String.valueOf(v));
+		return this;
+	}
+
+	public JsonWriter value(int v) throws IOException {
+		return value((long) v);
+	}
+
+	public JsonWriter value(long v) throws IOException {
+		beforeValue();
+		// Fill the digits from the end, negatively to cover Long.MIN_VALUE
+		int pos = digits.length;
+		long n = v < 0 ? v : -v;
+		do {
+			digits[--pos] = (char) ('0' - (n % 10));
+			n /= 10;
+		} while (n != 0);
+		if (v < 0) {
+			digits[--pos] = '-';
+		}
+		writeAscii(digits, pos, digits.length - pos);
+		return this;
+	}
+
+	public JsonWriter value(float v) throws IOException {
+		beforeValue();
+		if (Float.isNaN(v) || Float.isInfinite(v)) {
+			writeQuoted(Float.toString(v));
+		} else {
+			writeAscii(Float.toString(v));
+		}
+		return this;
+	}
+
+	public JsonWriter value(double v) throws IOException {
+		beforeValue();
+		if (Double.isNaN(v) || Double.isInfinite(v)) {
+			writeQuoted(Double.toString(v));
+		} else {
+			writeAscii(Double.toString(v));
+		}
+		return this;
+	}
+
+	public JsonWriter value(String v) throws IOException {
+		if (v == null) {
+			return nullValue();
+		}
+		beforeValue();
+		writeQuoted(v);
+		return this;
+	}
+
+	public JsonWriter value(Enum<?> v) throws IOException {
+		return v == null ? nullValue() : value(v.name());
+	}
+
+	public JsonWriter value(Boolean v) throws IOException {
+		return v == null ? nullValue() : value(v.booleanValue());
+	}
+
+	public JsonWriter value(Character v) throws IOException {
+		return v == null ? nullValue() : value(v.charValue());
+	}
+
+	public JsonWriter value(Byte v) throws IOException {
+		return v == null ? nullValue() : value(v.longValue());
+	}
+
+	public JsonWriter value(Short v) throws IOException {
+		return v == null ? nullValue() : value(v.longValue());
+	}
+
+	public JsonWriter value(Integer v) throws IOException {
+		return v == null ? nullValue() : value(v.longValue());
+	}
+
+	public JsonWriter value(Long v) throws IOException {
+		return v == null ? nullValue() : value(v.longValue());
+	}
+
+	public JsonWriter value(Float v) throws IOException {
+		return v == null ? nullValue() : value(v.floatValue());
+	}
+
+	public JsonWriter value(Double v) throws IOException {
+		return v == null ? nullValue() : value(v.doubleValue());
+	}
+
+	public JsonWriter value(boolean[] v) throws IOException {
+		if (v == null) {
+			return nullValue();
+		}
+		beginArray();
+		for (boolean e : v) {
+			value(e);
+		}
+		return endArray();
+	}
+
+	public JsonWriter value(byte[] v) throws IOException {
+		if (v == null) {
+			return nullValue();
+		}
+		beginArray();
+		for (byte e : v) {
+			value((long) e);
+		}
+		return endArray();
+	}
+
+	public JsonWriter value(short[] v) throws IOException {
+		if (v == null) {
+			return nullValue();
+		}
+		beginArray();
+		for (short e : v) {
+			value((long) e);
+		}
+		return endArray();
+	}
+
+	public JsonWriter value(char[] v) throws IOException {
+		if (v == null) {
+			return nullValue();
+		}
+		beginArray();
+		for (char e : v) {
+			value(e);
+		}
+		return endArray();
+	}
+
+	public JsonWriter value(int[] v) throws IOException {
+		if (v == null) {
+			return nullValue();
+		}
+		beginArray();
+		for (int e : v) {
+			value((long) e);
+		}
+		return endArray();
+	}
+
+	public JsonWriter value(long[] v) throws IOException {
+		if (v == null) {
+			return nullValue();
+		}
+		beginArray();
+		for (long e : v) {
+			value(e);
+		}
+		return endArray();
+	}
+
+	public JsonWriter value(float[] v) throws IOException {
+		if (v == null) {
+			return nullValue();
+		}
+		beginArray();
+		for (float e : v) {
+			value(e);
+		}
+		return endArray();
+	}
+
+	public JsonWriter value(double[] v) throws IOException {
+		if (v == null) {
+			return nullValue();
+		}
+		beginArray();
+		for (double e : v) {
+			value(e);
+		}
+		return endArray();
+	}
+
+	public JsonWriter value(String[] v) throws IOException {
+		if (v == null) {
+			return nullValue();
+		}
+		beginArray();
+		for (String e : v) {
+			value(e);
+		}
+		return endArray();
+	}
+
+	private void beforeValue() throws IOException {
+		if (needsComma) {
+			writeAscii(',');
+		}
+		needsComma = true;
+	}
+
+	/**
+	 * Append the quoted and escaped form of a string.
+	 */
+	static void appendQuoted(StringBuilder sb, String s) {
+		sb.append('"');
+		for (int i = 0; i < s.length(); ++i) {
+			char c = s.charAt(i);
+			String escape = c < ESCAPES.length ? ESCAPES[c] : null;
+			if (escape != null) {
+				sb.append(escape);
+			} else {
+				sb.append(c);
+			}
+		}
+		sb.append('"');
+	}
+
+	abstract void writeAscii(char c) throws IOException;
+
+	abstract void writeAscii(String s) throws IOException;
+
+	abstract void writeAscii(char[] chars, int offset, int length) throws IOException;
+
+	abstract void writeQuoted(String s) throws IOException;
+
+	abstract void writeName(JsonName name) throws IOException;
+
+	/**
+	 * Writes UTF-8 bytes into its own buffer.
+	 */
+	private static class Utf8JsonWriter extends JsonWriter {
+		private final OutputStream out;
+		private final byte[] buf = new byte[8192];
+		private int pos;
+
+		Utf8JsonWriter(OutputStream out) {
+			this.out = out;
+		}
+
+		@Override
+		void writeAscii(char c) throws IOException {
+			if (pos == buf.length) {
+				flushBuffer();
+			}
+			buf[pos++] = (byte) c;
+		}
+
+		@Override
+		void writeAscii(String s) throws IOException {
+			int length = s.length();
+			if (pos + length > buf.length) {
+				flushBuffer();
+			}
+			for (int i = 0; i < length; ++i) {
+				buf[pos++] = (byte) s.charAt(i);
+			}
+		}
+
+		@Override
+		void writeAscii(char[] chars, int offset, int length) throws IOException {
+			if (pos + length > buf.length) {
+				flushBuffer();
+			}
+			for (int i = offset; i < offset + length; ++i) {
+				buf[pos++] = (byte) chars[i];
+			}
+		}
+
+		@Override
+		void writeQuoted(String s) throws IOException {
+			writeAscii('"');
+			int length = s.length();
+			for (int i = 0; i < length; ++i) {
+				// Every char takes up to 6 bytes as an escape, and a surrogate pair 4 bytes
+				if (pos + 6 > buf.length) {
+					flushBuffer();
+				}
+				char c = s.charAt(i);
+				if (c < 0x80) {
+					String escape = ESCAPES[c];
+					if (escape == null) {
+						buf[pos++] = (byte) c;
+					} else {
+						for (int j = 0; j < escape.length(); ++j) {
+							buf[pos++] = (byte) escape.charAt(j);
+						}
+					}
+				} else if (c < 0x800) {
+					buf[pos++] = (byte) (0xc0 | (c >> 6));
+					buf[pos++] = (byte) (0x80 | (c & 0x3f));
+				} else if (Character.isHighSurrogate(c) && i + 1 < length
+						&& Character.isLowSurrogate(s.charAt(i + 1))) {
+					int cp = Character.toCodePoint(c, s.charAt(++i));
+					buf[pos++] = (byte) (0xf0 | (cp >> 18));
+					buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+					buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+					buf[pos++] = (byte) (0x80 | (cp & 0x3f));
+				} else if (Character.isSurrogate(c)) {
+					// Unpaired surrogates cannot be encoded
+					buf[pos++] = '?';
+				} else {
+					buf[pos++] = (byte) (0xe0 | (c >> 12));
+					buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+					buf[pos++] = (byte) (0x80 | (c & 0x3f));
+				}
+			}
+			writeAscii('"');
+		}
+
+		@Override
+		void writeName(JsonName name) throws IOException {
+			byte[] prefix = name.utf8Prefix;
+			if (pos + prefix.length > buf.length) {
+				flushBuffer();
+				if (prefix.length > buf.length) {
+					out.write(prefix);
+					return;
+				}
+			}
+			System.arraycopy(prefix, 0, buf, pos, prefix.length);
+			pos += prefix.length;
+		}
+
+		private void flushBuffer() throws IOException {
+			out.write(buf, 0, pos);
+			pos = 0;
+		}
+
+		@Override
+		public void flush() throws IOException {
+			flushBuffer();
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			flushBuffer();
+			out.close();
+		}
+	}
+
+	/**
+	 * Appends characters directly to the target.
+	 */
+	private static class TextJsonWriter extends JsonWriter {
+		private final Appendable out;
+
+		TextJsonWriter(Appendable out) {
+			this.out = out;
+		}
+
+		@Override
+		void writeAscii(char c) throws IOException {
+			out.append(c);
+		}
+
+		@Override
+		void writeAscii(String s) throws IOException {
+			out.append(s);
+		}
+
+		@Override
+		void writeAscii(char[] chars, int offset, int length) throws IOException {
+			for (int i = offset; i < offset + length; ++i) {
+				out.append(chars[i]);
+			}
+		}
+
+		@Override
+		void writeQuoted(String s) throws IOException {
+			out.append('"');
+			// Append runs of characters that need no escaping at once
+			int start = 0;
+			int length = s.length();
+			for (int i = 0; i < length; ++i) {
+				char c = s.charAt(i);
+				String escape = c < ESCAPES.length ? ESCAPES[c] : null;
+				if (escape != null) {
+					out.append(s, start, i).append(escape);
+					start = i + 1;
+				}
+			}
+			out.append(s, start, length).append('"');
+		}
+
+		@Override
+		void writeName(JsonName name) throws IOException {
+			out.append(name.prefix);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (out instanceof Flushable) {
+				((Flushable) out).flush();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (out instanceof Closeable) {
+				((Closeable) out).close();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.benchmarks;
+
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.nibeans.BeanFactory;
+import org.nibeans.benchmarks.beans.Car;
+import org.nibeans.benchmarks.beans.beanimplementations.BeanImplementations;
+import org.nibeans.internal.BeanAccessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading a property by its name, through the generated accessor and through reflection.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessorBenchmark {
+
+	private static final BeanAccessor<Car> ACCESSOR = BeanFactory.getInstance().providerFor(Car.class).getAccessor();
+
+	private final Map<String, Method> getters = new HashMap<>();
+	private final String name = new String("year");
+	private Car car;
+
+	@Setup
+	public void setup() throws Exception {
+		car = BeanImplementations.newCar();
+		car.setYear(2015);
+		for (PropertyDescriptor descriptor : Introspector.getBeanInfo(Car.class).getPropertyDescriptors()) {
+			getters.put(descriptor.getName(), descriptor.getReadMethod());
+		}
+	}
+
+	@Benchmark
+	public int getter() {
+		return car.getYear();
+	}
+
+	@Benchmark
+	public Object accessorByName() {
+		return ACCESSOR.get(car, ACCESSOR.indexOf(name));
+	}
+
+	@Benchmark
+	public int accessorPrimitiveByName() {
+		return ACCESSOR.getInt(car, ACCESSOR.indexOf(name));
+	}
+
+	@Benchmark
+	public Object accessorMapView() {
+		return ACCESSOR.asMap(car).get(name);
+	}
+
+	@Benchmark
+	public Object reflection() throws Exception {
+		return getters.get(name).invoke(car);
+	}
+
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+/**
+ * A synthetic corpus of bean interfaces for the benchmarks that compile beans. The same count always gives the
+ * same sources: mutable beans, beans that extend them, immutable beans with chain setters and beans that hold
+ * other beans, in turns.
+ */
+final class BeanCorpus {
+
+	static final String PACKAGE = "org.nibeans.benchmarks.corpus";
+	// The default container class of the generated implementations, or of their providers only
+	static final String REGISTRY_CLASS = PACKAGE + ".beanimplementations.BeanImplementations";
+
+	private BeanCorpus() {
+	}
+
+	/**
+	 * Write the interfaces of the given number of beans, named Bean0 and on, under the given source directory.
+	 */
+	static List<File> writeSources(File sourceDir, int beanCount) throws IOException {
+		File packageDir = new File(sourceDir, PACKAGE.replace('.', File.separatorChar));
+		if (!packageDir.isDirectory() && !packageDir.mkdirs()) {
+			throw new IOException("Cannot create " + packageDir);
+		}
+		List<File> sources = new ArrayList<>(beanCount);
+		for (int i = 0; i < beanCount; ++i) {
+			File source = new File(packageDir, "Bean" + i + ".java");
+			try (PrintWriter out = new PrintWriter(source, "UTF-8")) {
+				writeBean(out, i);
+			}
+			sources.add(source);
+		}
+		return sources;
+	}
+
+	private static void writeBean(PrintWriter out, int i) {
+		String name = "Bean" + i;
+		out.println("package " + PACKAGE + ";");
+		out.println();
+		switch (i % 4) {
+		case 0:
+			out.println("@org.nibeans.NIBean");
+			out.println("public interface " + name + " {");
+			writeProperty(out, "long", "Id");
+			writeProperty(out, "String", "Name");
+			writeProperty(out, "boolean", "Active");
+			writeProperty(out, "double", "Score");
+			writeProperty(out, "String[]", "Tags");
+			break;
+		case 1:
+			out.println("@org.nibeans.NIBean");
+			out.println("public interface " + name + " extends Bean" + (i - 1) + " {");
+			writeProperty(out, "int", "Level");
+			writeProperty(out, "java.math.BigDecimal", "Limit");
+			break;
+		case 2:
+			out.println("@org.nibeans.NIBean(immutable = true)");
+			out.println("public interface " + name + " {");
+			writeChainProperty(out, name, "String", "Code");
+			writeChainProperty(out, name, "int", "Amount");
+			writeChainProperty(out, name, "Long", "Stamp");
+			break;
+		default:
+			out.println("@org.nibeans.NIBean");
+			out.println("public interface " + name + " {");
+			writeProperty(out, "Bean" + (i - 3), "Owner");
+			writeProperty(out, "Bean" + (i - 1), "Value");
+			writeProperty(out, "Integer", "Count");
+			break;
+		}
+		out.println("}");
+	}
+
+	private static void writeProperty(PrintWriter out, String type, String name) {
+		out.println("\t" + type + " " + (type.equals("boolean") ? "is" : "get") + name + "();");
+		out.println("\tvoid set" + name + "(" + type + " v);");
+	}
+
+	private static void writeChainProperty(PrintWriter out, String bean, String type, String name) {
+		out.println("\t" + type + " get" + name + "();");
+		out.println("\t" + bean + " with" + name + "(" + type + " v);");
+	}
+
+	/**
+	 * Compile the given sources with the processor of the benchmark class path and the given options.
+	 */
+	static void compile(List<File> sources, File classesDir, String... options) {
+		List<String> args = new ArrayList<>();
+		args.add("-d");
+		args.add(classesDir.getPath());
+		args.add("-classpath");
+		args.add(System.getProperty("java.class.path"));
+		args.add("-processor");
+		args.add("org.nibeans.processor.NIBeansProcessor");
+		args.add("-Anib.srcpackages=" + PACKAGE);
+		args.addAll(Arrays.asList(options));
+		for (File source : sources) {
+			args.add(source.getPath());
+		}
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		if (compiler.run(null, null, null, args.toArray(new String[args.size()])) != 0) {
+			throw new IllegalStateException("Cannot compile " + sources.size() + " beans");
+		}
+	}
+
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.nibeans.BeanFactory;
+import org.nibeans.benchmarks.beans.Car;
+import org.nibeans.benchmarks.beans.beanimplementations.BeanImplementations;
+import org.nibeans.internal.BeanProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The different ways of creating a bean, from the generic factory lookup down to the generated static factory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanCreationBenchmark {
+
+	private static final BeanProvider<Car> CAR_PROVIDER = BeanFactory.getInstance().providerFor(Car.class);
+
+	@Benchmark
+	public Car factoryLookup() {
+		return BeanFactory.getInstance().createBean(Car.class);
+	}
+
+	@Benchmark
+	public Car providerHandle() {
+		return CAR_PROVIDER.createInstance();
+	}
+
+	@Benchmark
+	public Car staticFactory() {
+		return BeanImplementations.newCar();
+	}
+
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.nibeans.BeanFactory;
+import org.nibeans.benchmarks.beans.Car;
+import org.nibeans.internal.BeanProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Contended provider lookups through {@link BeanFactory#createBean(Class)}, compared with the plain
+ * {@link HashMap} lookup that the factory used to do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(64)
+public class BeanFactoryLookupBenchmark {
+
+	private BeanFactory factory;
+	private Map<Class<?>, BeanProvider<?>> legacyProviders;
+
+	@Setup
+	public void setup() {
+		factory = BeanFactory.getInstance();
+		legacyProviders = new HashMap<>();
+		for (BeanProvider<?> provider : factory.getAllBeanProviders()) {
+			legacyProviders.put(provider.getBeanInterface(), provider);
+		}
+	}
+
+	@Benchmark
+	public Car createBean() {
+		return factory.createBean(Car.class);
+	}
+
+	@Benchmark
+	public Car hashMapLookup() {
+		return (Car) legacyProviders.get(Car.class).createInstance();
+	}
+
+}
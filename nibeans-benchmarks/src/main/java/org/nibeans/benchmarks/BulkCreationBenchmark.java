@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.nibeans.BeanFactory;
+import org.nibeans.benchmarks.beans.Car;
+import org.nibeans.internal.BeanProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Creating a batch of beans, such as the rows of a result set, one call at a time and with the bulk APIs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BulkCreationBenchmark {
+
+	private static final BeanProvider<Car> CAR_PROVIDER = BeanFactory.getInstance().providerFor(Car.class);
+
+	@Param({ "1000" })
+	private int count;
+
+	@Benchmark
+	public Car[] perCall() {
+		Car[] cars = new Car[count];
+		for (int i = 0; i < cars.length; ++i) {
+			cars[i] = BeanFactory.getInstance().createBean(Car.class);
+		}
+		return cars;
+	}
+
+	@Benchmark
+	public Car[] createBeans() {
+		return BeanFactory.getInstance().createBeans(Car.class, count);
+	}
+
+	@Benchmark
+	public List<Car> perCallList() {
+		List<Car> cars = new ArrayList<>();
+		for (int i = 0; i < count; ++i) {
+			cars.add(CAR_PROVIDER.createInstance());
+		}
+		return cars;
+	}
+
+	@Benchmark
+	public List<Car> createInstancesList() {
+		List<Car> cars = new ArrayList<>();
+		CAR_PROVIDER.createInstances(cars, count);
+		return cars;
+	}
+
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.nibeans.benchmarks.beans.Car;
+import org.nibeans.benchmarks.beans.beanimplementations.BeanImplementations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Aggregating a single property over many beans, kept as objects or in columns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xmx4g" })
+public class ColumnScanBenchmark {
+
+	@Param({ "1000000" })
+	private int size;
+
+	private List<Car> objects;
+	private BeanImplementations.Car_impl.Columns columns;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		objects = new ArrayList<>(size);
+		columns = new BeanImplementations.Car_impl.Columns(size);
+		for (int i = 0; i < size; ++i) {
+			Car car = BeanImplementations.newCar();
+			car.setMake("make" + (i % 100));
+			car.setYear(1950 + random.nextInt(70));
+			car.setAutomatic(random.nextBoolean());
+			objects.add(car);
+			columns.add(car);
+		}
+		// Objects allocated over time are scattered over the heap
+		Collections.shuffle(objects, random);
+	}
+
+	@Benchmark
+	public long objectsSumYear() {
+		long sum = 0;
+		for (Car car : objects) {
+			sum += car.getYear();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long columnsSumYear() {
+		int[] years = columns.yearColumn();
+		long sum = 0;
+		for (int i = 0, n = columns.size(); i < n; ++i) {
+			sum += years[i];
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long cursorSumYear() {
+		long sum = 0;
+		for (BeanImplementations.Car_impl.Columns.Cursor cursor = columns.cursor(); cursor.next();) {
+			sum += cursor.getYear();
+		}
+		return sum;
+	}
+
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.nibeans.UpdateOperator;
+import org.nibeans.benchmarks.beans.Quote;
+import org.nibeans.benchmarks.beans.beanimplementations.BeanImplementations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Threads updating a shared bean, through the atomic methods of a concurrent bean and through setters under a
+ * lock. Run with {@code -t} to change the number of threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class ConcurrentUpdateBenchmark {
+
+	private static final UpdateOperator.OfLong INCREMENT = new UpdateOperator.OfLong() {
+		@Override
+		public long apply(long v) {
+			return v + 1;
+		}
+	};
+
+	private final BeanImplementations.Counters_impl counters = (BeanImplementations.Counters_impl) BeanImplementations
+			.newCounters();
+	private final Quote quote = BeanImplementations.newQuote();
+
+	@Benchmark
+	public long atomicAdd() {
+		return counters.getAndAddCount(1);
+	}
+
+	@Benchmark
+	public long atomicUpdate() {
+		return counters.getAndUpdateCount(INCREMENT);
+	}
+
+	@Benchmark
+	public long lockedAdd() {
+		synchronized (quote) {
+			long quantity = quote.getQuantity();
+			quote.setQuantity(quantity + 1);
+			return quantity;
+		}
+	}
+
+	@Benchmark
+	public long volatileRead() {
+		return counters.getCount();
+	}
+
+	@Benchmark
+	public long lockedRead() {
+		synchronized (quote) {
+			return quote.getQuantity();
+		}
+	}
+
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.nibeans.benchmarks.beans.Car;
+import org.nibeans.benchmarks.beans.beanimplementations.BeanImplementations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Snapshots of a bean, with the generated copy methods and through its getters and setters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CopyBenchmark {
+
+	private BeanImplementations.Car_impl car;
+
+	@Setup
+	public void setup() {
+		car = new BeanImplementations.Car_impl();
+		car.setMake("Volvo");
+		car.setModel("V60");
+		car.setYear(2015);
+		car.setAutomatic(true);
+		car.setOwners(new String[] { "Alice", "Bob" });
+	}
+
+	@Benchmark
+	public Car accessors() {
+		Car copy = BeanImplementations.newCar();
+		copy.setMake(car.getMake());
+		copy.setModel(car.getModel());
+		copy.setYear(car.getYear());
+		copy.setAutomatic(car.isAutomatic());
+		copy.setOwners(car.getOwners() != null ? car.getOwners().clone() : null);
+		return copy;
+	}
+
+	@Benchmark
+	public Car shallowCopy() {
+		return car.shallowCopy();
+	}
+
+	@Benchmark
+	public Car deepCopy() {
+		return car.deepCopy();
+	}
+
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.nibeans.BeanFactory;
+import org.nibeans.benchmarks.beans.Quote;
+import org.nibeans.benchmarks.beans.TrackedQuote;
+import org.nibeans.internal.DirtyTrackingBean;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The cost of dirty tracking on the write path, setting the same properties with and without tracking.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DirtyTrackingBenchmark {
+
+	private final Quote quote = BeanFactory.getInstance().createBean(Quote.class);
+	private final TrackedQuote trackedQuote = BeanFactory.getInstance().createBean(TrackedQuote.class);
+	private long counter;
+
+	@Benchmark
+	public Quote set() {
+		long i = ++counter;
+		quote.setSymbol("SYM");
+		quote.setPrice(i);
+		quote.setQuantity(i);
+		quote.setTimestamp(i);
+		return quote;
+	}
+
+	@Benchmark
+	public TrackedQuote setTracked() {
+		long i = ++counter;
+		trackedQuote.setSymbol("SYM");
+		trackedQuote.setPrice(i);
+		trackedQuote.setQuantity(i);
+		trackedQuote.setTimestamp(i);
+		return trackedQuote;
+	}
+
+	@Benchmark
+	public int setTrackedAndCollect() {
+		setTracked();
+		DirtyTrackingBean tracking = (DirtyTrackingBean) trackedQuote;
+		int count = 0;
+		for (int index = tracking.nextDirtyProperty(0); index >= 0; index = tracking.nextDirtyProperty(index + 1)) {
+			++count;
+		}
+		tracking.clearDirty();
+		return count;
+	}
+
+}
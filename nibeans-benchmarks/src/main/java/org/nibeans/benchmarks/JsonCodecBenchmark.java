@@ -0,0 +1,79 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.nibeans.benchmarks.beans.GasolineCar;
+import org.nibeans.benchmarks.beans.beanimplementations.BeanImplementations;
+import org.nibeans.json.JsonReader;
+import org.nibeans.json.JsonWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encoding and decoding a bean with the generated JSON codec.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+	private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+	private GasolineCar car;
+	private byte[] encoded;
+
+	@Setup
+	public void setup() throws IOException {
+		car = BeanImplementations.newGasolineCar();
+		car.setMake("Volvo");
+		car.setModel("V60");
+		car.setYear(2015);
+		car.setAutomatic(true);
+		car.setOwners(new String[] { "Alice", "Bob" });
+		car.setOctaneLevel(95);
+		encoded = encode();
+	}
+
+	@Benchmark
+	public byte[] encode() throws IOException {
+		buffer.reset();
+		JsonWriter out = JsonWriter.to(buffer);
+		BeanImplementations.GasolineCar_impl.Json.write(car, out);
+		out.flush();
+		return buffer.toByteArray();
+	}
+
+	@Benchmark
+	public GasolineCar decode() throws IOException {
+		return BeanImplementations.GasolineCar_impl.Json.read(JsonReader.from(new ByteArrayInputStream(encoded)));
+	}
+
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.nibeans.benchmarks.beans.Position;
+import org.nibeans.benchmarks.beans.PositionKey;
+import org.nibeans.benchmarks.beans.beanimplementations.BeanImplementations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Looking up beans by their keys in the generated index and in hash maps, by a composite key bean with generated
+ * equals() and hashCode() and by a boxed primitive key.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyIndexBenchmark {
+
+	private static final String[] SYMBOLS = { "AAPL", "AMZN", "GOOG", "IBM", "MSFT", "NVDA", "ORCL", "SAP" };
+
+	@Param({ "1000", "1000000" })
+	public int beanCount;
+
+	private final BeanImplementations.Position_impl.Index index = new BeanImplementations.Position_impl.Index();
+	private final Map<PositionKey, Position> compositeMap = new HashMap<>();
+	private final Map<Long, Position> accountMap = new HashMap<>();
+	private long[] accountIds;
+	private String[] symbols;
+	private int next;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		accountIds = new long[beanCount];
+		symbols = new String[beanCount];
+		for (int i = 0; i < beanCount; ++i) {
+			Position position = BeanImplementations.newPosition();
+			position.setAccountId(1000000000L + i);
+			position.setSymbol(SYMBOLS[random.nextInt(SYMBOLS.length)]);
+			index.put(position);
+			compositeMap.put(key(position.getAccountId(), position.getSymbol()), position);
+			accountMap.put(position.getAccountId(), position);
+			accountIds[i] = position.getAccountId();
+			symbols[i] = position.getSymbol();
+		}
+		// Look up in a random order
+		for (int i = beanCount - 1; i > 0; --i) {
+			int j = random.nextInt(i + 1);
+			long accountId = accountIds[i];
+			accountIds[i] = accountIds[j];
+			accountIds[j] = accountId;
+			String symbol = symbols[i];
+			symbols[i] = symbols[j];
+			symbols[j] = symbol;
+		}
+	}
+
+	private static PositionKey key(long accountId, String symbol) {
+		return BeanImplementations.PositionKey_impl.builder().accountId(accountId).symbol(symbol).build();
+	}
+
+	private int nextIndex() {
+		int i = next;
+		next = i + 1 < beanCount ? i + 1 : 0;
+		return i;
+	}
+
+	@Benchmark
+	public Position index() {
+		int i = nextIndex();
+		return index.get(accountIds[i], symbols[i]);
+	}
+
+	@Benchmark
+	public Position compositeKeyMap() {
+		int i = nextIndex();
+		return compositeMap.get(key(accountIds[i], symbols[i]));
+	}
+
+	@Benchmark
+	public Position boxedKeyMap() {
+		return accountMap.get(accountIds[nextIndex()]);
+	}
+
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import org.nibeans.benchmarks.beans.Document;
+import org.nibeans.benchmarks.beans.beanimplementations.BeanImplementations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Beans with collection properties that are mostly left empty, with the collections created on first read and
+ * created with the beans. Run with {@code -prof gc} to compare the allocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LazyDefaultBenchmark {
+
+	private final Document document = BeanImplementations.newDocument();
+
+	@Benchmark
+	public Document createLazy() {
+		Document doc = BeanImplementations.newDocument();
+		doc.setTitle("untitled");
+		return doc;
+	}
+
+	@Benchmark
+	public Document createEager() {
+		Document doc = BeanImplementations.newDocument();
+		doc.setTitle("untitled");
+		doc.setLines(new ArrayList<String>());
+		doc.setAttributes(new HashMap<String, String>());
+		doc.setTags(new HashSet<String>());
+		return doc;
+	}
+
+	@Benchmark
+	public Document createLazyAndUseOne() {
+		Document doc = BeanImplementations.newDocument();
+		doc.setTitle("untitled");
+		doc.getLines().add("first");
+		return doc;
+	}
+
+	@Benchmark
+	public int readDefaulted() {
+		return document.getLines().size();
+	}
+
+	@Benchmark
+	public String readPlain() {
+		return document.getTitle();
+	}
+
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.nibeans.benchmarks.beans.GasolineCar;
+import org.nibeans.benchmarks.beans.beanimplementations.BeanImplementations;
+import org.nibeans.internal.PatchOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sending a small update of a bean as a whole serialized object and as a patch. The sizes are printed by
+ * {@link #setup()}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatchBenchmark {
+
+	private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+	private final PatchOutput patchOutput = new PatchOutput();
+	private GasolineCar car;
+	private GasolineCar updated;
+	private GasolineCar target;
+	private byte[] patch;
+
+	@Setup
+	public void setup() throws IOException {
+		car = BeanImplementations.newGasolineCar();
+		car.setMake("Volvo");
+		car.setModel("V60");
+		car.setYear(2015);
+		car.setAutomatic(true);
+		car.setOwners(new String[] { "Alice", "Bob" });
+		car.setOctaneLevel(95);
+		updated = ((BeanImplementations.GasolineCar_impl) car).deepCopy();
+		updated.setYear(2016);
+		target = ((BeanImplementations.GasolineCar_impl) car).deepCopy();
+		patch = BeanImplementations.GasolineCar_impl.Patch.diff(car, updated);
+		System.out.println("serialized: " + serialize().length + " bytes, full patch: "
+				+ BeanImplementations.GasolineCar_impl.Patch.diff(null, updated).length + " bytes, patch: "
+				+ patch.length + " bytes");
+	}
+
+	@Benchmark
+	public byte[] serialize() throws IOException {
+		buffer.reset();
+		try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+			out.writeObject(updated);
+		}
+		return buffer.toByteArray();
+	}
+
+	@Benchmark
+	public byte[] diff() {
+		return BeanImplementations.GasolineCar_impl.Patch.diff(car, updated);
+	}
+
+	@Benchmark
+	public int diffReused() {
+		patchOutput.reset();
+		BeanImplementations.GasolineCar_impl.Patch.write(patchOutput, car, updated);
+		return patchOutput.size();
+	}
+
+	@Benchmark
+	public GasolineCar applyPatch() throws IOException {
+		BeanImplementations.GasolineCar_impl.Patch.applyPatch(target, patch);
+		return target;
+	}
+
+}
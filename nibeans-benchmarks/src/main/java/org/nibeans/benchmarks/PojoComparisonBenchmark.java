@@ -0,0 +1,155 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.nibeans.BeanFactory;
+import org.nibeans.benchmarks.beans.Car;
+import org.nibeans.benchmarks.beans.GasolineCar;
+import org.nibeans.benchmarks.beans.beanimplementations.BeanImplementations;
+import org.nibeans.benchmarks.pojo.CarPojo;
+import org.nibeans.benchmarks.pojo.GasolineCarPojo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The generated beans against equivalent hand-written classes: creation, accessors, the equality and hash codes of
+ * a bean with a base implementation, hash map keys and serialization round trips. The {@code impl} parameter
+ * selects the implementation, so each operation is reported side by side.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PojoComparisonBenchmark {
+
+	private static final int KEY_COUNT = 1000;
+
+	@Param({ "nibeans", "pojo" })
+	public String impl;
+
+	private boolean pojo;
+	private GasolineCar car;
+	private GasolineCar equalCar;
+	private GasolineCar[] keys;
+	private byte[] serialized;
+	private int year;
+
+	@Setup
+	public void setup() throws IOException {
+		pojo = "pojo".equals(impl);
+		car = newGasolineCar();
+		fill(car, 0);
+		equalCar = newGasolineCar();
+		fill(equalCar, 0);
+		keys = new GasolineCar[KEY_COUNT];
+		for (int i = 0; i < KEY_COUNT; ++i) {
+			keys[i] = newGasolineCar();
+			fill(keys[i], i);
+		}
+		serialized = serialize(car);
+	}
+
+	private GasolineCar newGasolineCar() {
+		return pojo ? new GasolineCarPojo() : BeanImplementations.newGasolineCar();
+	}
+
+	private static void fill(GasolineCar car, int i) {
+		car.setMake("Make" + i % 10);
+		car.setModel("Model" + i);
+		car.setYear(2000 + i % 20);
+		car.setAutomatic(i % 2 == 0);
+		car.setOwners(new String[] { "Owner" + i });
+		car.setOctaneLevel(95);
+	}
+
+	private static byte[] serialize(Object obj) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(obj);
+		}
+		return bytes.toByteArray();
+	}
+
+	@Benchmark
+	public Car create() {
+		return pojo ? new CarPojo() : BeanImplementations.newCar();
+	}
+
+	@Benchmark
+	public Car createThroughFactory() {
+		// The factory has no counterpart for hand-written classes, the pojo variant measures the constructor
+		return pojo ? new CarPojo() : BeanFactory.getInstance().createBean(Car.class);
+	}
+
+	@Benchmark
+	public int getAndSet() {
+		car.setYear(++year);
+		car.setOctaneLevel(year);
+		return car.getYear() + car.getOctaneLevel();
+	}
+
+	@Benchmark
+	public boolean equalsWithBase() {
+		return car.equals(equalCar);
+	}
+
+	@Benchmark
+	public int hashCodeWithBase() {
+		return car.hashCode();
+	}
+
+	@Benchmark
+	public Map<GasolineCar, Integer> hashMapKeys() {
+		Map<GasolineCar, Integer> map = new HashMap<>();
+		for (int i = 0; i < KEY_COUNT; ++i) {
+			map.put(keys[i], i);
+		}
+		return map;
+	}
+
+	@Benchmark
+	public byte[] serialize() throws IOException {
+		return serialize(car);
+	}
+
+	@Benchmark
+	public Object deserialize() throws IOException, ClassNotFoundException {
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+			return in.readObject();
+		}
+	}
+
+}
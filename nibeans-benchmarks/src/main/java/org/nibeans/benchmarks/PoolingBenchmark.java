@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.nibeans.BeanArena;
+import org.nibeans.BeanFactory;
+import org.nibeans.benchmarks.beans.Quote;
+import org.nibeans.internal.BeanProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A batch job that creates short-lived beans, with plain allocation and with pooled instances. Run with
+ * {@code -prof gc} to compare the allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class PoolingBenchmark {
+
+	private static final BeanProvider<Quote> QUOTE_PROVIDER = BeanFactory.getInstance().providerFor(Quote.class);
+
+	@Param({ "100" })
+	private int batchSize;
+
+	private final BeanArena arena = new BeanArena();
+	private Quote[] batch;
+
+	@Benchmark
+	public double allocate() {
+		Quote[] quotes = getBatch();
+		for (int i = 0; i < quotes.length; ++i) {
+			quotes[i] = QUOTE_PROVIDER.createInstance();
+		}
+		return process(quotes);
+	}
+
+	@Benchmark
+	public double pool() {
+		Quote[] quotes = getBatch();
+		for (int i = 0; i < quotes.length; ++i) {
+			quotes[i] = QUOTE_PROVIDER.acquire();
+		}
+		double result = process(quotes);
+		for (Quote quote : quotes) {
+			QUOTE_PROVIDER.release(quote);
+		}
+		return result;
+	}
+
+	@Benchmark
+	public double arena() {
+		Quote[] quotes = getBatch();
+		for (int i = 0; i < quotes.length; ++i) {
+			quotes[i] = arena.acquire(QUOTE_PROVIDER);
+		}
+		double result = process(quotes);
+		arena.releaseAll();
+		return result;
+	}
+
+	private Quote[] getBatch() {
+		if (batch == null) {
+			batch = new Quote[batchSize];
+		}
+		return batch;
+	}
+
+	private static double process(Quote[] quotes) {
+		double total = 0;
+		for (int i = 0; i < quotes.length; ++i) {
+			Quote quote = quotes[i];
+			quote.setSymbol("SYM");
+			quote.setPrice(100 + i);
+			quote.setQuantity(i);
+			quote.setTimestamp(i);
+			total += quote.getPrice() * quote.getQuantity();
+		}
+		return total;
+	}
+
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Wall time and peak heap of javac with the processor over a synthetic corpus of beans, generated as top-level
+ * classes. {@code process} stops after the annotation processing, {@code compile} compiles the results too.
+ * Run it with {@code -f 1 -p beanCount=10000} for a single large corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+// The beans are compiled in the forked JVM, the templates read the interface elements of javac reflectively
+@Fork(value = 1, jvmArgsAppend = { "-Xmx6g", "--add-opens=jdk.compiler/com.sun.tools.javac.code=ALL-UNNAMED" })
+public class ProcessorBenchmark {
+
+	@Param({ "1000", "10000" })
+	public int beanCount;
+
+	private File baseDir;
+	private List<File> sources;
+	private File classesDir;
+
+	/**
+	 * The peak of the heap in use during an invocation, sampled every few milliseconds.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class HeapUsage {
+
+		public long peakHeapMb;
+
+		private volatile boolean sampling;
+		private Thread sampler;
+
+		@Setup(Level.Invocation)
+		public void start() {
+			System.gc();
+			final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+			sampling = true;
+			sampler = new Thread("heap-sampler") {
+				@Override
+				public void run() {
+					long peak = 0;
+					while (sampling) {
+						peak = Math.max(peak, memory.getHeapMemoryUsage().getUsed());
+						try {
+							Thread.sleep(5);
+						} catch (InterruptedException e) {
+							break;
+						}
+					}
+					peakHeapMb = peak >> 20;
+				}
+			};
+			sampler.setDaemon(true);
+			sampler.start();
+		}
+
+		@TearDown(Level.Invocation)
+		public void stop() throws InterruptedException {
+			sampling = false;
+			sampler.join();
+		}
+
+	}
+
+	@Setup(Level.Trial)
+	public void writeSources() throws IOException {
+		baseDir = Files.createTempDirectory("nibeans-processor-").toFile();
+		sources = BeanCorpus.writeSources(new File(baseDir, "src"), beanCount);
+	}
+
+	@Setup(Level.Invocation)
+	public void createClassesDir() throws IOException {
+		classesDir = Files.createTempDirectory(baseDir.toPath(), "classes").toFile();
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteFiles() throws IOException {
+		Files.walkFileTree(baseDir.toPath(), new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				Files.delete(file);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+				Files.delete(dir);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	@Benchmark
+	public void process(HeapUsage heapUsage) {
+		BeanCorpus.compile(sources, classesDir, "-Anib.split=true", "-proc:only", "-s", classesDir.getPath());
+	}
+
+	@Benchmark
+	public void compile(HeapUsage heapUsage) {
+		BeanCorpus.compile(sources, classesDir, "-Anib.split=true", "-s", classesDir.getPath());
+	}
+
+}
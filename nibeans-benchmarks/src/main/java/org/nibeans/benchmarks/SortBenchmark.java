@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.benchmarks;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.nibeans.benchmarks.beans.Car;
+import org.nibeans.benchmarks.beans.beanimplementations.BeanImplementations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sorting beans with the generated comparators and with the equivalent lambda comparators, which box primitive
+ * properties unless specialized by hand.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SortBenchmark {
+
+	private static final String[] MAKES = { "audi", "bmw", "citroen", "dacia", "fiat", "ford", "honda", "kia",
+			"mazda", "opel", "peugeot", "renault", "seat", "skoda", "toyota", "volvo" };
+
+	private static final Comparator<Car> LAMBDA_BY_YEAR = Comparator.comparing(Car::getYear);
+	private static final Comparator<Car> LAMBDA_BY_MAKE_YEAR = Comparator
+			.comparing(Car::getMake, Comparator.nullsFirst(Comparator.<String> naturalOrder()))
+			.thenComparing(Car::getYear);
+	private static final Comparator<Car> LAMBDA_BY_MAKE_YEAR_INT = Comparator
+			.comparing(Car::getMake, Comparator.nullsFirst(Comparator.<String> naturalOrder()))
+			.thenComparingInt(Car::getYear);
+	private static final Comparator<Car> GENERATED_BY_YEAR = BeanImplementations.Car_impl.Order.byYear();
+	private static final Comparator<Car> GENERATED_BY_MAKE_YEAR = BeanImplementations.Car_impl.Order.by("make",
+			"year");
+
+	@Param({ "10000000" })
+	public int beanCount;
+
+	private Car[] beans;
+	private Car[] sorted;
+
+	@Setup(Level.Trial)
+	public void createBeans() {
+		Random random = new Random(42);
+		beans = new Car[beanCount];
+		for (int i = 0; i < beanCount; ++i) {
+			Car car = BeanImplementations.newCar();
+			car.setMake(MAKES[random.nextInt(MAKES.length)]);
+			car.setYear(1950 + random.nextInt(70));
+			beans[i] = car;
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void copyBeans() {
+		sorted = beans.clone();
+	}
+
+	@Benchmark
+	public Car[] lambdaByYear() {
+		Arrays.sort(sorted, LAMBDA_BY_YEAR);
+		return sorted;
+	}
+
+	@Benchmark
+	public Car[] generatedByYear() {
+		Arrays.sort(sorted, GENERATED_BY_YEAR);
+		return sorted;
+	}
+
+	@Benchmark
+	public Car[] lambdaByMakeYear() {
+		Arrays.sort(sorted, LAMBDA_BY_MAKE_YEAR);
+		return sorted;
+	}
+
+	@Benchmark
+	public Car[] lambdaByMakeYearInt() {
+		Arrays.sort(sorted, LAMBDA_BY_MAKE_YEAR_INT);
+		return sorted;
+	}
+
+	@Benchmark
+	public Car[] generatedByMakeYear() {
+		Arrays.sort(sorted, GENERATED_BY_MAKE_YEAR);
+		return sorted;
+	}
+
+}
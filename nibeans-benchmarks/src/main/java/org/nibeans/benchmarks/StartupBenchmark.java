@@ -0,0 +1,124 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.TimeUnit;
+
+import org.nibeans.BeanFactory;
+import org.nibeans.internal.BeanProvider;
+import org.nibeans.internal.BeanProviderRegistry;
+import org.nibeans.internal.BeanProviderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to the first created bean in a fresh class loader holding many generated beans, through the lazy index
+ * lookup of {@link BeanFactory}, compared with the eager scan of all the {@link BeanProviderService} services.
+ * The beans are generated as top-level classes, and compiled once into the temporary directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+// The beans are compiled in the forked JVM, the templates read the interface elements of javac reflectively
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g", "--add-opens=jdk.compiler/com.sun.tools.javac.code=ALL-UNNAMED" })
+public class StartupBenchmark {
+
+	@Param({ "1000", "10000" })
+	public int beanCount;
+
+	private File classesDir;
+	private URLClassLoader loader;
+
+	@Setup(Level.Trial)
+	public void generateBeans() throws IOException {
+		File baseDir = new File(System.getProperty("java.io.tmpdir"), "nibeans-startup-" + beanCount);
+		classesDir = new File(baseDir, "classes");
+		// Compiled by an earlier run
+		if (new File(classesDir, BeanCorpus.REGISTRY_CLASS.replace('.', File.separatorChar) + ".class").isFile()) {
+			return;
+		}
+		if (!classesDir.isDirectory() && !classesDir.mkdirs()) {
+			throw new IOException("Cannot create " + classesDir);
+		}
+		BeanCorpus.compile(BeanCorpus.writeSources(new File(baseDir, "src"), beanCount), classesDir,
+				"-Anib.split=true");
+	}
+
+	@Setup(Level.Invocation)
+	public void createClassLoader() {
+		loader = new URLClassLoader(new URL[] { toUrl(classesDir) }, getClass().getClassLoader());
+	}
+
+	@TearDown(Level.Invocation)
+	public void closeClassLoader() throws IOException {
+		loader.close();
+	}
+
+	@Benchmark
+	public Object firstCreateBean() throws ClassNotFoundException {
+		return BeanFactory.getInstance().createBean(Class.forName(BeanCorpus.PACKAGE + ".Bean0", false, loader));
+	}
+
+	@Benchmark
+	public Object eagerServiceScan() throws ClassNotFoundException {
+		final List<BeanProvider<?>> providers = new ArrayList<>();
+		BeanProviderRegistry registry = new BeanProviderRegistry() {
+			@Override
+			public <T> void register(BeanProvider<T> provider) {
+				providers.add(provider);
+			}
+		};
+		for (BeanProviderService service : ServiceLoader.load(BeanProviderService.class, loader)) {
+			service.registerProviders(registry);
+		}
+		Class<?> beanInterface = Class.forName(BeanCorpus.PACKAGE + ".Bean0", false, loader);
+		for (BeanProvider<?> provider : providers) {
+			if (provider.getBeanInterface() == beanInterface) {
+				return provider.createInstance();
+			}
+		}
+		throw new IllegalStateException("No provider of " + beanInterface);
+	}
+
+	private static URL toUrl(File dir) {
+		try {
+			return dir.toURI().toURL();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.nibeans.benchmarks.beans.Quote;
+import org.nibeans.benchmarks.beans.beanimplementations.BeanImplementations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loading a data set at startup, rebuilt as beans from plain values, such as the rows of a database, and opened
+ * from a store file written by an earlier run. The file is in the page cache, as after a restart of the process
+ * rather than of the machine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = { "-Xmx4g" })
+public class StoreBenchmark {
+
+	@Param({ "1000000" })
+	private int size;
+
+	private String[] symbols;
+	private Path path;
+
+	@Setup
+	public void setup() throws IOException {
+		symbols = new String[size];
+		for (int i = 0; i < size; ++i) {
+			symbols[i] = "SYM" + (i % 5000);
+		}
+		path = Files.createTempFile("quotes", ".nibs");
+		Quote quote = BeanImplementations.newQuote();
+		try (BeanImplementations.Quote_impl.Store store = BeanImplementations.Quote_impl.Store.open(path)) {
+			for (int i = 0; i < size; ++i) {
+				fill(quote, i);
+				store.append(quote);
+			}
+			store.force();
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.delete(path);
+	}
+
+	private void fill(Quote quote, int i) {
+		quote.setSymbol(symbols[i]);
+		quote.setPrice(i * 0.01);
+		quote.setQuantity(i % 1000);
+		quote.setTimestamp(1500000000000L + i);
+	}
+
+	@Benchmark
+	public List<Quote> rebuild() {
+		List<Quote> quotes = new ArrayList<>(size);
+		for (int i = 0; i < size; ++i) {
+			Quote quote = BeanImplementations.newQuote();
+			fill(quote, i);
+			quotes.add(quote);
+		}
+		return quotes;
+	}
+
+	@Benchmark
+	public long open() throws IOException {
+		try (BeanImplementations.Quote_impl.Store store = BeanImplementations.Quote_impl.Store.openReadOnly(path)) {
+			return store.record(store.size() - 1).getQuantity();
+		}
+	}
+
+	@Benchmark
+	public long openAndScan() throws IOException {
+		try (BeanImplementations.Quote_impl.Store store = BeanImplementations.Quote_impl.Store.openReadOnly(path)) {
+			long sum = 0;
+			BeanImplementations.Quote_impl.Store.Record record = store.cursor();
+			while (record.next()) {
+				sum += record.getQuantity();
+			}
+			return sum;
+		}
+	}
+
+	@Benchmark
+	public long openAndLoad() throws IOException {
+		try (BeanImplementations.Quote_impl.Store store = BeanImplementations.Quote_impl.Store.openReadOnly(path)) {
+			List<Quote> quotes = new ArrayList<>((int) store.size());
+			for (long i = 0; i < store.size(); ++i) {
+				quotes.add(store.get(i));
+			}
+			return quotes.size();
+		}
+	}
+
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.benchmarks.pojo;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.nibeans.benchmarks.beans.Car;
+
+/**
+ * A hand-written {@link Car}, the way it would be written without nibeans.
+ */
+public class CarPojo implements Car, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private String make;
+	private String model;
+	private int year;
+	private boolean automatic;
+	private String[] owners;
+
+	@Override
+	public String getMake() {
+		return make;
+	}
+
+	@Override
+	public void setMake(String v) {
+		this.make = v;
+	}
+
+	@Override
+	public String getModel() {
+		return model;
+	}
+
+	@Override
+	public void setModel(String v) {
+		this.model = v;
+	}
+
+	@Override
+	public int getYear() {
+		return year;
+	}
+
+	@Override
+	public void setYear(int v) {
+		this.year = v;
+	}
+
+	@Override
+	public boolean isAutomatic() {
+		return automatic;
+	}
+
+	@Override
+	public void setAutomatic(boolean v) {
+		this.automatic = v;
+	}
+
+	@Override
+	public String[] getOwners() {
+		return owners;
+	}
+
+	@Override
+	public void setOwners(String[] v) {
+		this.owners = v;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof CarPojo)) {
+			return false;
+		}
+		CarPojo other = (CarPojo) obj;
+		return year == other.year && automatic == other.automatic && Objects.equals(make, other.make)
+				&& Objects.equals(model, other.model) && Arrays.equals(owners, other.owners);
+	}
+
+	@Override
+	public int hashCode() {
+		int h = Objects.hash(make, model, year, automatic);
+		return 31 * h + Arrays.hashCode(owners);
+	}
+
+}
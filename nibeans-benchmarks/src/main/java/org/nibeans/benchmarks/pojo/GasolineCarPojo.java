@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.benchmarks.pojo;
+
+import org.nibeans.benchmarks.beans.GasolineCar;
+
+/**
+ * A hand-written {@link GasolineCar}, extending the hand-written car like the generated implementations do.
+ */
+public class GasolineCarPojo extends CarPojo implements GasolineCar {
+
+	private static final long serialVersionUID = 1L;
+
+	private int octaneLevel;
+
+	@Override
+	public int getOctaneLevel() {
+		return octaneLevel;
+	}
+
+	@Override
+	public void setOctaneLevel(int v) {
+		this.octaneLevel = v;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof GasolineCarPojo && super.equals(obj) && octaneLevel == ((GasolineCarPojo) obj).octaneLevel;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * super.hashCode() + octaneLevel;
+	}
+
+}
@@ -15,19 +15,26 @@
  */
 package org.nibeans.processor;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.io.Writer;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
 import javax.tools.FileObject;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardLocation;
 
 import org.nibeans.internal.BeanProviderService;
+import org.nibeans.processor.NIBeansProcessor.ImplClassInfo;
+import org.stringtemplate.v4.AutoIndentWriter;
 import org.stringtemplate.v4.ST;
 import org.stringtemplate.v4.STGroup;
 import org.stringtemplate.v4.STGroupFile;
@@ -40,6 +47,9 @@ import org.stringtemplate.v4.STGroupFile;
  */
 public class Generator {
 
+	// Keeps each registration method of the provider service well below the size limit of a method
+	private static final int PROVIDERS_PER_METHOD = 1000;
+
 	private final Filer filer;
 	private STGroup templateGroup;
 
@@ -47,20 +57,62 @@ public class Generator {
 		this.filer = filer;
 	}
 
-	public void generate(String packageName, String containerClassName, Collection<?> implementationClasses)
+	/**
+	 * Generate all the implementation classes nested in a single container class.
+	 */
+	public void generate(String packageName, String containerClassName, List<ImplClassInfo> implementationClasses)
+			throws IOException {
+		generateContainer(packageName, containerClassName, implementationClasses, false);
+		generateResources(packageName, containerClassName, implementationClasses);
+	}
+
+	/**
+	 * Generate a top-level class per implementation, and a container class that only registers their providers.
+	 */
+	public void generateSplit(String packageName, String containerClassName, List<ImplClassInfo> implementationClasses)
 			throws IOException {
-		// Generate the container class
-		ST tmpl = getTemplate();
+		for (ImplClassInfo implClassInfo : implementationClasses) {
+			ST tmpl = getTemplate("impl_unit");
+			tmpl.add("implClass", implClassInfo);
+			writeSource(implClassInfo.pkgName + "." + implClassInfo.clsName, tmpl, implClassInfo.intfElement);
+		}
+		generateContainer(packageName, containerClassName, implementationClasses, true);
+		generateResources(packageName, containerClassName, implementationClasses);
+	}
+
+	/**
+	 * Generate the top-level class of a single implementation, and a resource that names its provider. Both
+	 * originate only in its interface, as incremental compilers expect.
+	 */
+	public void generateIsolated(ImplClassInfo implClassInfo) throws IOException {
+		ST tmpl = getTemplate("impl_unit");
+		tmpl.add("implClass", implClassInfo);
+		writeSource(implClassInfo.pkgName + "." + implClassInfo.clsName, tmpl, implClassInfo.intfElement);
+		FileObject resource = filer.createResource(StandardLocation.CLASS_OUTPUT, "",
+				BeanProviderService.PROVIDER_RESOURCE_PREFIX + implClassInfo.binaryName, implClassInfo.intfElement);
+		try (OutputStream output = resource.openOutputStream()) {
+			output.write((implClassInfo.getProviderName() + "\n").getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private void generateContainer(String packageName, String containerClassName,
+			List<ImplClassInfo> implementationClasses, boolean split) throws IOException {
+		ST tmpl = getTemplate("impl_file");
 		tmpl.add("pkgName", packageName);
 		tmpl.add("containerClassName", containerClassName);
 		tmpl.add("classes", implementationClasses);
-		// Write the target class file
-		JavaFileObject targetClassObj = filer.createSourceFile(packageName + "." + containerClassName);
-		try (OutputStream output = targetClassObj.openOutputStream()) {
-			String contents = tmpl.render();
-			byte[] bytes = contents.getBytes(StandardCharsets.UTF_8);
-			output.write(bytes);
+		List<List<?>> providerChunks = new ArrayList<>();
+		for (int i = 0; i < implementationClasses.size(); i += PROVIDERS_PER_METHOD) {
+			providerChunks.add(implementationClasses.subList(i,
+					Math.min(i + PROVIDERS_PER_METHOD, implementationClasses.size())));
 		}
+		tmpl.add("providerChunks", providerChunks);
+		tmpl.add("split", split);
+		writeSource(packageName + "." + containerClassName, tmpl);
+	}
+
+	private void generateResources(String packageName, String containerClassName,
+			List<ImplClassInfo> implementationClasses) throws IOException {
 		// Add the providers
 		FileObject res1 = filer.createResource(StandardLocation.CLASS_OUTPUT, "",
 				"META-INF/services/" + BeanProviderService.class.getName());
@@ -72,15 +124,34 @@ public class Generator {
 			ps.println("$ProviderService");
 			ps.flush();
 		}
+		// Add the index of the providers
+		ST indexTmpl = getTemplate("index_file");
+		indexTmpl.add("classes", implementationClasses);
+		FileObject index = filer.createResource(StandardLocation.CLASS_OUTPUT, "",
+				BeanProviderService.INDEX_RESOURCE);
+		try (Writer writer = new BufferedWriter(new OutputStreamWriter(index.openOutputStream(),
+				StandardCharsets.UTF_8))) {
+			indexTmpl.write(new AutoIndentWriter(writer));
+		}
+	}
+
+	/**
+	 * Render a source file straight to the writer of the filer, without holding all of its contents.
+	 */
+	private void writeSource(String className, ST tmpl, Element... originatingElements) throws IOException {
+		JavaFileObject targetClassObj = filer.createSourceFile(className, originatingElements);
+		try (Writer writer = new BufferedWriter(targetClassObj.openWriter())) {
+			tmpl.write(new AutoIndentWriter(writer));
+		}
 	}
 
-	private ST getTemplate() {
+	private ST getTemplate(String name) {
 		if (templateGroup == null) {
 			URL in = getClass().getResource("/template.txt");
 			templateGroup = new STGroupFile(in, StandardCharsets.UTF_8.name(), '<', '>');
 			templateGroup.load();
 		}
-		return templateGroup.getInstanceOf("impl_file");
+		return templateGroup.getInstanceOf(name);
 	}
 
 }
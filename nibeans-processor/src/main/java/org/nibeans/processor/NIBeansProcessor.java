@@ -18,11 +18,14 @@ package org.nibeans.processor;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -37,15 +40,24 @@ import javax.annotation.processing.SupportedOptions;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
 import javax.lang.model.element.PackageElement;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypeException;
 import javax.lang.model.type.PrimitiveType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
 import javax.lang.model.util.Types;
 
 import org.nibeans.NIBean;
+import org.nibeans.NIBeanDefault;
+import org.nibeans.NIBeanKey;
+import org.nibeans.NIBeanMaxLength;
+import org.nibeans.internal.BeanSerializationHelper;
+import org.nibeans.internal.RecordFile;
 
 /**
  * Processes classes annotated with {@link org.nibeans.NIBean} and generated default implementations for them.
@@ -56,17 +68,39 @@ import org.nibeans.NIBean;
 @SupportedOptions({ //
 		NIBeansProcessor.OPT_SOURCE_PACKAGES, //
 		NIBeansProcessor.OPT_TARGET_CLASS, //
-		NIBeansProcessor.OPT_STRICT })
+		NIBeansProcessor.OPT_STRICT, //
+		NIBeansProcessor.OPT_RECORDS, //
+		NIBeansProcessor.OPT_JSON, //
+		NIBeansProcessor.OPT_COLUMNS, //
+		NIBeansProcessor.OPT_PATCHES, //
+		NIBeansProcessor.OPT_COMPARATORS, //
+		NIBeansProcessor.OPT_STORE, //
+		NIBeansProcessor.OPT_SPLIT, //
+		NIBeansProcessor.OPT_IMPL_PACKAGE, //
+		NIBeansProcessor.OPT_INCREMENTAL })
 public class NIBeansProcessor extends AbstractProcessor {
 
 	private static final String OPTIONS_PREFIX = "nib.";
 	public static final String OPT_SOURCE_PACKAGES = OPTIONS_PREFIX + "srcpackages";
 	public static final String OPT_TARGET_CLASS = OPTIONS_PREFIX + "tgtclass";
 	public static final String OPT_STRICT = OPTIONS_PREFIX + "strict";
+	public static final String OPT_RECORDS = OPTIONS_PREFIX + "records";
+	public static final String OPT_JSON = OPTIONS_PREFIX + "json";
+	public static final String OPT_COLUMNS = OPTIONS_PREFIX + "columns";
+	public static final String OPT_PATCHES = OPTIONS_PREFIX + "patches";
+	public static final String OPT_COMPARATORS = OPTIONS_PREFIX + "comparators";
+	public static final String OPT_STORE = OPTIONS_PREFIX + "store";
+	public static final String OPT_SPLIT = OPTIONS_PREFIX + "split";
+	public static final String OPT_IMPL_PACKAGE = OPTIONS_PREFIX + "implpackage";
+	public static final String OPT_INCREMENTAL = OPTIONS_PREFIX + "incremental";
+	// The kinds of incremental processing that gradle asks of processors that register as dynamic
+	private static final String GRADLE_ISOLATING = "org.gradle.annotation.processing.isolating";
+	private static final String GRADLE_AGGREGATING = "org.gradle.annotation.processing.aggregating";
 
 	private static final String DEFAULT_TARGET_PACKAGE = ".beanimplementations";
 	private static final String DEFAULT_TARGET_CLASS = "BeanImplementations";
 	private static final Class<? extends Annotation> BEAN_CLASS = NIBean.class;
+	private static final int RECORDS_SOURCE_VERSION = 16;
 	private static final Pattern NAME_PATTERN = Pattern.compile("^(\\w+(\\.\\w+)*)\\.(\\w+)$");
 
 	// Processor options
@@ -74,9 +108,24 @@ public class NIBeansProcessor extends AbstractProcessor {
 	private String targetPackage;
 	private String targetClass;
 	private boolean isStrict;
+	private boolean useRecords;
+	private boolean generateJson;
+	private boolean generateColumns;
+	private boolean generatePatches;
+	private boolean generateComparators;
+	private boolean generateStore;
+	private boolean splitClasses;
+	private String implPackage;
+	private boolean incremental;
 
 	// Working objects
 	private final Map<TypeElement, ImplClassInfo> processedInterfaces = new HashMap<>();
+	// The valid implementations with their base implementations linked
+	private final Map<Element, ImplClassInfo> linkedImpls = new HashMap<>();
+	// The primitive types by the elements of their boxes, cached per round for the checks of all properties
+	private final Map<Element, PrimitiveType> boxedTypes = new HashMap<>();
+	private TypeMirror comparableType;
+	private boolean generated;
 	private IssueTracker tracker;
 	private Generator generator;
 
@@ -118,6 +167,56 @@ public class NIBeansProcessor extends AbstractProcessor {
 		if (strictValue != null) {
 			isStrict = Boolean.valueOf(strictValue);
 		}
+		// Records for immutable beans, where the source version allows them
+		String recordsValue = processingEnv.getOptions().get(OPT_RECORDS);
+		if (recordsValue != null) {
+			useRecords = Boolean.valueOf(recordsValue)
+					&& processingEnv.getSourceVersion().ordinal() >= RECORDS_SOURCE_VERSION;
+		}
+		// JSON codecs
+		String jsonValue = processingEnv.getOptions().get(OPT_JSON);
+		if (jsonValue != null) {
+			generateJson = Boolean.valueOf(jsonValue);
+		}
+		// Columnar containers
+		String columnsValue = processingEnv.getOptions().get(OPT_COLUMNS);
+		if (columnsValue != null) {
+			generateColumns = Boolean.valueOf(columnsValue);
+		}
+		// Binary patches
+		String patchesValue = processingEnv.getOptions().get(OPT_PATCHES);
+		if (patchesValue != null) {
+			generatePatches = Boolean.valueOf(patchesValue);
+		}
+		// Comparators by properties
+		String comparatorsValue = processingEnv.getOptions().get(OPT_COMPARATORS);
+		if (comparatorsValue != null) {
+			generateComparators = Boolean.valueOf(comparatorsValue);
+		}
+		// Memory-mapped stores of fixed-size records
+		String storeValue = processingEnv.getOptions().get(OPT_STORE);
+		if (storeValue != null) {
+			generateStore = Boolean.valueOf(storeValue);
+		}
+		// Top-level implementation classes, next to their interfaces unless a package is given
+		String splitValue = processingEnv.getOptions().get(OPT_SPLIT);
+		if (splitValue != null) {
+			splitClasses = Boolean.valueOf(splitValue);
+		}
+		String implPackageValue = processingEnv.getOptions().get(OPT_IMPL_PACKAGE);
+		if (implPackageValue != null && !implPackageValue.trim().isEmpty()) {
+			implPackage = implPackageValue.trim();
+		}
+		// An isolated top-level class per bean, generated in the round that finds the bean. Whether a bean is
+		// extended cannot be known in isolation, so no records
+		String incrementalValue = processingEnv.getOptions().get(OPT_INCREMENTAL);
+		if (incrementalValue != null) {
+			incremental = Boolean.valueOf(incrementalValue);
+		}
+		if (incremental) {
+			splitClasses = true;
+			useRecords = false;
+		}
 		// Other
 		tracker = new IssueTracker(processingEnv.getMessager(), isStrict);
 		generator = new Generator(processingEnv.getFiler());
@@ -128,6 +227,13 @@ public class NIBeansProcessor extends AbstractProcessor {
 		return Collections.singleton(BEAN_CLASS.getName());
 	}
 
+	@Override
+	public Set<String> getSupportedOptions() {
+		Set<String> options = new HashSet<>(super.getSupportedOptions());
+		options.add(incremental ? GRADLE_ISOLATING : GRADLE_AGGREGATING);
+		return options;
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
@@ -136,10 +242,14 @@ public class NIBeansProcessor extends AbstractProcessor {
 		}
 		try {
 			if (roundEnv.processingOver()) {
-				return generateResults();
+				// Print any issues
+				tracker.printIssues();
+				return false;
 			}
+			cacheTypes();
 			// Get which classes to scan
 			boolean claimed = false;
+			List<ImplClassInfo> roundImpls = new ArrayList<>();
 			for (Element element : roundEnv.getElementsAnnotatedWith(BEAN_CLASS)) {
 				// Make sure the interface is inside one of the packages explicitly specified
 				Element packageElm = element.getEnclosingElement();
@@ -147,15 +257,38 @@ public class NIBeansProcessor extends AbstractProcessor {
 						|| !packagesToScan.contains(((PackageElement) packageElm).getQualifiedName().toString())) {
 					continue;
 				}
-				// Process this interface
+				// Process this interface, unless it was already processed as the base of another one
 				tracker.enterScope(element);
-				ImplClassInfo clsInfo = processInterafce(element);
+				ImplClassInfo clsInfo = processedInterfaces.get(element);
+				if (clsInfo == null) {
+					clsInfo = processInterafce(element);
+				}
 				if (clsInfo != null) {
-					processedInterfaces.put(clsInfo.intfElement, clsInfo);
-					claimed = true;
+					if (incremental) {
+						processedInterfaces.put(clsInfo.intfElement, clsInfo);
+						roundImpls.add(clsInfo);
+						claimed = true;
+					} else if (generated) {
+						tracker.addIssue("found after the implementations were generated in an earlier round");
+					} else {
+						processedInterfaces.put(clsInfo.intfElement, clsInfo);
+						claimed = true;
+					}
 				}
 				tracker.leaveScope();
 			}
+			// Generate each bean on its own in incremental mode
+			if (incremental) {
+				for (ImplClassInfo implClassInfo : roundImpls) {
+					generateIsolated(implClassInfo);
+				}
+				return claimed;
+			}
+			// Generate within the first round that found beans, so that the other sources can use the results
+			if (!generated && !processedInterfaces.isEmpty()) {
+				generated = true;
+				generateResults();
+			}
 			return claimed;
 		} catch (IOException e) {
 			tracker.addIssue(e.getMessage(), e);
@@ -197,6 +330,37 @@ public class NIBeansProcessor extends AbstractProcessor {
 		}
 		// Working descriptor
 		ImplClassInfo info = new ImplClassInfo(intfElement, baseInterface);
+		info.binaryName = processingEnv.getElementUtils().getBinaryName(intfElement).toString();
+		if (splitClasses) {
+			info.pkgName = implPackage != null ? implPackage
+					: processingEnv.getElementUtils().getPackageOf(intfElement).getQualifiedName().toString();
+		} else {
+			info.pkgName = targetPackage;
+			info.containerClassName = targetClass;
+		}
+		NIBean beanAnnotation = intfElement.getAnnotation(NIBean.class);
+		if (beanAnnotation != null) {
+			info.cacheHashCode = beanAnnotation.cacheHashCode();
+			info.immutable = beanAnnotation.immutable();
+			info.pooled = beanAnnotation.pooled();
+			info.trackChanges = beanAnnotation.trackChanges();
+			info.compactLayout = beanAnnotation.compactLayout();
+			info.comparableBy = Arrays.asList(beanAnnotation.comparableBy());
+			if (info.pooled && info.immutable) {
+				tracker.addIssue("immutable beans cannot be pooled");
+				return null;
+			}
+			if (info.trackChanges && info.immutable) {
+				tracker.addIssue("immutable beans cannot track changes");
+				return null;
+			}
+			// Concurrent updates of all fields, other than packed ones, caches and dirty bits
+			info.concurrent = beanAnnotation.concurrent();
+			if (info.concurrent && (info.immutable || info.compactLayout || info.cacheHashCode || info.trackChanges)) {
+				tracker.addIssue("concurrent beans cannot be immutable, compact, cache their hash codes or track changes");
+				return null;
+			}
+		}
 		// Inspect the elements
 		boolean good = true;
 		for (Element enclosedElement : intfElement.getEnclosedElements()) {
@@ -232,11 +396,20 @@ public class NIBeansProcessor extends AbstractProcessor {
 			if (property.getter == null && property.booleanGetter == null) {
 				tracker.addIssue("property %s has no getter", property.name);
 				good = false;
-			} else if (property.setter == null && property.chainSetter == null) {
+			} else if (property.setter == null && property.chainSetter == null && !info.immutable) {
 				tracker.addIssue("property %s has no setter", property.name);
 				good = false;
 			}
 		}
+		assignSerialTags(info);
+		// The natural order, by properties of this interface or of its base interfaces
+		for (String name : info.comparableBy) {
+			Property property = info.properties.get(name);
+			if (property != null ? !isComparableType(property.fieldType) : info.baseInterface == null) {
+				tracker.addIssue("property %s in comparableBy is not a comparable property", name);
+				good = false;
+			}
+		}
 		// Result
 		return good ? info : null;
 	}
@@ -245,28 +418,134 @@ public class NIBeansProcessor extends AbstractProcessor {
 		Property property = processCommonGetter(propName, methodElement, info);
 		if (property != null) {
 			property.getter = methodElement;
-			return true;
+			return processKey(property, methodElement, info) && processDefault(property, methodElement, info)
+					&& processMaxLength(property, methodElement);
 		}
 		return false;
 	}
 
 	private boolean processIsGetter(String propName, ExecutableElement methodElement, ImplClassInfo info) {
-		final Types typeUtils = processingEnv.getTypeUtils();
 		// isSomething() must be a boolean getter
 		TypeMirror propTypePrim = getPrimitiveType(methodElement.getReturnType());
-		PrimitiveType boolType = typeUtils.getPrimitiveType(TypeKind.BOOLEAN);
-		if (propTypePrim == null || !(typeUtils.isSameType(boolType, propTypePrim))) {
+		if (propTypePrim == null || propTypePrim.getKind() != TypeKind.BOOLEAN) {
 			tracker.addIssue("non-boolean return type %s", methodElement.getReturnType());
 			return false;
 		}
 		Property property = processCommonGetter(propName, methodElement, info);
 		if (property != null) {
 			property.booleanGetter = methodElement;
+			return processKey(property, methodElement, info) && processDefault(property, methodElement, info)
+					&& processMaxLength(property, methodElement);
+		}
+		return false;
+	}
+
+	/**
+	 * Assign the tags that identify the properties of a class in the serialized form, the hashes of their names.
+	 * When names have the same hash, the first one in name order keeps it, and the others probe for the next tag
+	 * that is neither assigned nor the hash of another name of the class.
+	 */
+	private static void assignSerialTags(ImplClassInfo info) {
+		Set<Integer> nameHashes = new HashSet<>();
+		for (Property property : info.properties.values()) {
+			nameHashes.add(property.getNameHash());
+		}
+		Set<Integer> assignedTags = new HashSet<>();
+		for (Property property : info.properties.values()) {
+			int tag = property.getNameHash();
+			if (!assignedTags.add(tag)) {
+				do {
+					++tag;
+				} while (nameHashes.contains(tag) || !assignedTags.add(tag));
+			}
+			property.serialTag = tag;
+		}
+	}
+
+	/**
+	 * Find how the default value of the property of a getter is created, if the getter has one.
+	 */
+	private boolean processDefault(Property property, ExecutableElement methodElement, ImplClassInfo info) {
+		NIBeanDefault defaultAnnotation = methodElement.getAnnotation(NIBeanDefault.class);
+		if (defaultAnnotation == null) {
 			return true;
 		}
+		// Class values are only available as mirrors at compile time
+		TypeMirror defaultType;
+		try {
+			defaultAnnotation.value();
+			return false;
+		} catch (MirroredTypeException e) {
+			defaultType = e.getTypeMirror();
+		}
+		if (info.immutable) {
+			tracker.addIssue("properties of immutable beans cannot have defaults");
+			return false;
+		}
+		Types typeUtils = processingEnv.getTypeUtils();
+		if (property.fieldType.getKind() != TypeKind.DECLARED || defaultType.getKind() != TypeKind.DECLARED
+				|| !typeUtils.isAssignable(typeUtils.erasure(defaultType), typeUtils.erasure(property.fieldType))) {
+			tracker.addIssue("default %s of property %s is not of type %s", defaultType, property.name,
+					property.fieldType);
+			return false;
+		}
+		TypeElement defaultElement = (TypeElement) ((DeclaredType) defaultType).asElement();
+		if (defaultElement.getKind() != ElementKind.CLASS || defaultElement.getModifiers().contains(Modifier.ABSTRACT)
+				|| !hasPublicDefaultConstructor(defaultElement)) {
+			tracker.addIssue("default %s of property %s has no public constructor without arguments", defaultType,
+					property.name);
+			return false;
+		}
+		property.defaultConstruction = "new " + defaultElement.getQualifiedName()
+				+ (defaultElement.getTypeParameters().isEmpty() ? "()" : "<>()");
+		return true;
+	}
+
+	private static boolean hasPublicDefaultConstructor(TypeElement classElement) {
+		for (ExecutableElement constructor : ElementFilter.constructorsIn(classElement.getEnclosedElements())) {
+			if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+				return true;
+			}
+		}
 		return false;
 	}
 
+	/**
+	 * Bound the length of the String property of a getter, if the getter has a maximal length.
+	 */
+	private boolean processMaxLength(Property property, ExecutableElement methodElement) {
+		NIBeanMaxLength maxLengthAnnotation = methodElement.getAnnotation(NIBeanMaxLength.class);
+		if (maxLengthAnnotation == null) {
+			return true;
+		}
+		if (!isStringType(property.fieldType)) {
+			tracker.addIssue("property %s of type %s cannot have a maximal length", property.name, property.fieldType);
+			return false;
+		}
+		int maxLength = maxLengthAnnotation.value();
+		if (maxLength < 0 || maxLength > Short.MAX_VALUE) {
+			tracker.addIssue("maximal length %d of property %s is out of range", maxLength, property.name);
+			return false;
+		}
+		property.maxLength = maxLength;
+		return true;
+	}
+
+	/**
+	 * Add the property of a getter to the keys of the bean, if the getter is annotated as a key.
+	 */
+	private boolean processKey(Property property, ExecutableElement methodElement, ImplClassInfo info) {
+		if (methodElement.getAnnotation(NIBeanKey.class) == null || info.keyPropertyDefs.contains(property)) {
+			return true;
+		}
+		if (property.fieldType.getKind() == TypeKind.ARRAY) {
+			tracker.addIssue("array property %s cannot be a key", property.name);
+			return false;
+		}
+		info.keyPropertyDefs.add(property);
+		return true;
+	}
+
 	private Property processCommonGetter(String propName, ExecutableElement methodElement, ImplClassInfo info) {
 		// Getters should have no arguments
 		if (!methodElement.getParameters().isEmpty()) {
@@ -307,6 +586,11 @@ public class NIBeansProcessor extends AbstractProcessor {
 			tracker.addIssue("unsupported setter signature");
 			return false;
 		}
+		// Immutable beans are only modified by copying
+		if (info.immutable) {
+			tracker.addIssue("setters are not supported by immutable beans, use a chain setter instead");
+			return false;
+		}
 		// Setters should have a single argument with correct property type
 		TypeMirror setterType = methodElement.getParameters().get(0).asType();
 		Property property = info.properties.get(propName);
@@ -373,17 +657,41 @@ public class NIBeansProcessor extends AbstractProcessor {
 			return false;
 		}
 		final PrimitiveType pt2 = getPrimitiveType(t2);
-		return pt1.equals(pt2);
+		return pt2 != null && pt1.getKind() == pt2.getKind();
 	}
 
+	/**
+	 * The primitive type of a primitive or a boxed type, null for other types.
+	 */
 	private PrimitiveType getPrimitiveType(TypeMirror t) {
 		if (t.getKind().isPrimitive()) {
 			return (PrimitiveType) t;
 		}
-		try {
-			return processingEnv.getTypeUtils().unboxedType(t);
-		} catch (IllegalArgumentException e) {
-			return null;
+		// A lookup rather than Types.unboxedType(), which throws for all the other types
+		return t.getKind() == TypeKind.DECLARED ? boxedTypes.get(((DeclaredType) t).asElement()) : null;
+	}
+
+	/**
+	 * Whether the comparators can compare values of the given type, which is either primitive or comparable.
+	 */
+	private boolean isComparableType(TypeMirror t) {
+		if (getPrimitiveType(t) != null) {
+			return true;
+		}
+		Types typeUtils = processingEnv.getTypeUtils();
+		return t.getKind() == TypeKind.DECLARED && typeUtils.isAssignable(typeUtils.erasure(t), comparableType);
+	}
+
+	private void cacheTypes() {
+		Types typeUtils = processingEnv.getTypeUtils();
+		comparableType = typeUtils.erasure(processingEnv.getElementUtils()
+				.getTypeElement(Comparable.class.getName()).asType());
+		boxedTypes.clear();
+		for (TypeKind kind : TypeKind.values()) {
+			if (kind.isPrimitive()) {
+				PrimitiveType primitiveType = typeUtils.getPrimitiveType(kind);
+				boxedTypes.put(typeUtils.boxedClass(primitiveType), primitiveType);
+			}
 		}
 	}
 
@@ -391,6 +699,7 @@ public class NIBeansProcessor extends AbstractProcessor {
 		Property property;
 		property = new Property();
 		property.name = propName;
+		property.owner = info;
 		property.fieldType = propType;
 		info.properties.put(propName, property);
 		return property;
@@ -399,7 +708,7 @@ public class NIBeansProcessor extends AbstractProcessor {
 	/**
 	 * Generate the results of this processing run.
 	 */
-	private boolean generateResults() throws IOException {
+	private void generateResults() throws IOException {
 		// Link base class implementations
 		List<ImplClassInfo> validImpls = new ArrayList<>(processedInterfaces.size());
 		for (ImplClassInfo implClassInfo : processedInterfaces.values()) {
@@ -409,11 +718,9 @@ public class NIBeansProcessor extends AbstractProcessor {
 			}
 			tracker.leaveScope();
 		}
-		// Print any issues
-		tracker.printIssues();
 		// Nothing to generate?
 		if (validImpls.isEmpty()) {
-			return false;
+			return;
 		}
 		// Sort to keep the output consistent
 		Collections.sort(validImpls, new Comparator<ImplClassInfo>() {
@@ -424,25 +731,402 @@ public class NIBeansProcessor extends AbstractProcessor {
 				return qn1.compareTo(qn2);
 			}
 		});
+		// Records cannot take part in an inheritance chain, nor have any instance fields of their own or packed ones
+		if (useRecords) {
+			Set<ImplClassInfo> baseImpls = new HashSet<>();
+			for (ImplClassInfo implClassInfo : validImpls) {
+				baseImpls.add(implClassInfo.baseImpl);
+			}
+			for (ImplClassInfo implClassInfo : validImpls) {
+				implClassInfo.record = implClassInfo.immutable && !implClassInfo.cacheHashCode
+						&& !implClassInfo.compactLayout && implClassInfo.baseImpl == null
+						&& !baseImpls.contains(implClassInfo);
+			}
+		}
+		// Prepare the implementations
+		for (ImplClassInfo implClassInfo : validImpls) {
+			linkedImpls.put(implClassInfo.intfElement, implClassInfo);
+		}
+		for (ImplClassInfo implClassInfo : validImpls) {
+			prepareImplClass(implClassInfo);
+		}
 		// Generate the results
-		generator.generate(targetPackage, targetClass, validImpls);
-		return false;
+		if (splitClasses) {
+			generator.generateSplit(targetPackage, targetClass, validImpls);
+		} else {
+			generator.generate(targetPackage, targetClass, validImpls);
+		}
+	}
+
+	/**
+	 * Generate the implementation of a single bean in isolation, for incremental processing. Its base
+	 * implementation and those of its bean properties may come from earlier compilations.
+	 */
+	private void generateIsolated(ImplClassInfo implClassInfo) throws IOException {
+		ImplClassInfo linkedImpl = findLinkedImpl(implClassInfo.intfElement);
+		if (linkedImpl != null) {
+			prepareImplClass(linkedImpl);
+			generator.generateIsolated(linkedImpl);
+		}
+	}
+
+	/**
+	 * The processed bean interface, which is processed on demand in incremental mode, when it comes from an
+	 * earlier compilation or a later round.
+	 */
+	private ImplClassInfo findImplClassInfo(TypeElement intfElement) throws IOException {
+		ImplClassInfo implClassInfo = processedInterfaces.get(intfElement);
+		if (implClassInfo == null && incremental && intfElement.getAnnotation(BEAN_CLASS) != null
+				&& packagesToScan.contains(processingEnv.getElementUtils().getPackageOf(intfElement)
+						.getQualifiedName().toString())) {
+			tracker.enterScope(intfElement);
+			implClassInfo = processInterafce(intfElement);
+			tracker.leaveScope();
+			if (implClassInfo != null) {
+				processedInterfaces.put(intfElement, implClassInfo);
+			}
+		}
+		return implClassInfo;
+	}
+
+	/**
+	 * The valid implementation of the given bean interface with its base implementation linked, or null.
+	 */
+	private ImplClassInfo findLinkedImpl(Element element) throws IOException {
+		ImplClassInfo implClassInfo = linkedImpls.get(element);
+		if (implClassInfo == null && incremental && element.getKind() == ElementKind.INTERFACE) {
+			implClassInfo = findImplClassInfo((TypeElement) element);
+			if (implClassInfo != null) {
+				tracker.enterScope(implClassInfo.intfElement);
+				boolean valid = validateImplClassInfo(implClassInfo);
+				tracker.leaveScope();
+				if (!valid) {
+					return null;
+				}
+				linkedImpls.put(element, implClassInfo);
+			}
+		}
+		return implClassInfo;
+	}
+
+	/**
+	 * Complete a linked implementation and its base implementations for generation.
+	 */
+	private void prepareImplClass(ImplClassInfo implClassInfo) throws IOException {
+		if (implClassInfo.prepared) {
+			return;
+		}
+		implClassInfo.prepared = true;
+		if (implClassInfo.baseImpl != null) {
+			prepareImplClass(implClassInfo.baseImpl);
+		}
+		// Index the properties, and hash their names for the accessor
+		List<Property> allProperties = implClassInfo.getAllPropertyDefs();
+		List<String> names = new ArrayList<>(allProperties.size());
+		for (int i = 0; i < allProperties.size(); ++i) {
+			allProperties.get(i).index = i;
+			names.add(allProperties.get(i).name);
+		}
+		implClassInfo.nameHash = PerfectHash.of(names);
+		if (implClassInfo.nameHash == null) {
+			tracker.enterScope(implClassInfo.intfElement);
+			tracker.addIssue("no perfect hash of the property names was found, the accessor switches on the names");
+			tracker.leaveScope();
+		}
+		// Pack the boolean properties of compact beans
+		if (implClassInfo.compactLayout) {
+			packBooleanProperties(implClassInfo);
+		}
+		// Field updaters exist only for int and long fields, the other primitives of concurrent beans are stored
+		// as their bits in such fields
+		if (implClassInfo.concurrent) {
+			for (Property property : implClassInfo.propertyDefs) {
+				TypeKind kind = property.fieldType.getKind();
+				property.atomicBits = kind.isPrimitive() && kind != TypeKind.INT && kind != TypeKind.LONG;
+			}
+		}
+		// Find the properties that are generated beans themselves
+		for (Property property : implClassInfo.propertyDefs) {
+			if (property.fieldType.getKind() == TypeKind.DECLARED) {
+				property.beanImpl = findLinkedImpl(((DeclaredType) property.fieldType).asElement());
+			}
+		}
+		// Map the properties to JSON and patch values, patches serialize the values of other types
+		if (generateJson || generatePatches) {
+			implClassInfo.json = generateJson;
+			tracker.enterScope(implClassInfo.intfElement);
+			for (Property property : implClassInfo.propertyDefs) {
+				if (!resolveValueKind(property) && generateJson) {
+					tracker.addIssue("property %s of type %s is left out of the JSON codec", property.name,
+							property.fieldType);
+				}
+			}
+			tracker.leaveScope();
+		}
+		implClassInfo.columns = generateColumns;
+		implClassInfo.patches = generatePatches;
+		// Map the properties to the static compare() methods of their primitive values
+		for (Property property : implClassInfo.propertyDefs) {
+			property.comparable = isComparableType(property.fieldType);
+			PrimitiveType primitiveType = getPrimitiveType(property.fieldType);
+			if (primitiveType != null) {
+				property.compareClass = processingEnv.getTypeUtils().boxedClass(primitiveType).getQualifiedName().toString();
+			}
+		}
+		implClassInfo.comparators = generateComparators || !implClassInfo.comparableBy.isEmpty();
+		if (generateStore) {
+			implClassInfo.store = layOutRecord(implClassInfo);
+		}
 	}
 
-	private boolean validateImplClassInfo(ImplClassInfo implClassInfo) {
-		if (implClassInfo.invalid) {
+	/**
+	 * Assign offsets in the fixed-size records of the stores to the properties of a class, after the properties
+	 * of its base class. Values are aligned by their sizes, and bounded strings like shorts.
+	 * 
+	 * @return false if the class or its base class has properties without a fixed size, so it has no store.
+	 */
+	private boolean layOutRecord(ImplClassInfo implClassInfo) {
+		ImplClassInfo baseImpl = implClassInfo.baseImpl;
+		if (baseImpl != null && !baseImpl.store) {
+			return false;
+		}
+		List<Property> properties = new ArrayList<>(implClassInfo.propertyDefs);
+		for (Property property : properties) {
+			if (property.getStoreAlignment() == 0) {
+				tracker.enterScope(implClassInfo.intfElement);
+				tracker.addIssue("property %s of type %s has no fixed size, the bean is left out of the stores",
+						property.name, property.fieldType);
+				tracker.leaveScope();
+				return false;
+			}
+		}
+		// Larger values first, so that aligning them leaves no gaps
+		Collections.sort(properties, new Comparator<Property>() {
+			@Override
+			public int compare(Property a, Property b) {
+				return Integer.compare(b.getStoreAlignment(), a.getStoreAlignment());
+			}
+		});
+		int offset = baseImpl != null ? baseImpl.recordSize : 0;
+		int alignment = baseImpl != null ? baseImpl.recordAlignment : 1;
+		StringBuilder layout = new StringBuilder();
+		if (baseImpl != null) {
+			// Derived beans without properties of their own still have records of their own
+			layout.append(baseImpl.recordLayout).append('|');
+		}
+		layout.append(implClassInfo.binaryName);
+		for (Property property : properties) {
+			int propertyAlignment = property.getStoreAlignment();
+			offset = (offset + propertyAlignment - 1) & -propertyAlignment;
+			property.storeOffset = offset;
+			offset += property.getStoreSize();
+			alignment = Math.max(alignment, propertyAlignment);
+			layout.append(';').append(property.name).append(':').append(property.fieldType).append('@').append(property.storeOffset);
+		}
+		if (offset == 0) {
 			return false;
 		}
-		if (implClassInfo.baseInterface == null || implClassInfo.baseImpl != null) {
+		implClassInfo.recordSize = (offset + alignment - 1) & -alignment;
+		implClassInfo.recordAlignment = alignment;
+		implClassInfo.recordLayout = layout.toString();
+		return true;
+	}
+
+	/**
+	 * Assign bits in int or long words to the boolean properties of a class. Boxed booleans take two bits, for
+	 * the value and for whether it is not null. Nothing is packed unless the words take less space than the
+	 * fields they replace, a byte per boolean and a compressed reference per boxed boolean.
+	 */
+	private void packBooleanProperties(ImplClassInfo implClassInfo) {
+		List<Property> packable = new ArrayList<>();
+		int bits = 0;
+		int fieldBytes = 0;
+		for (Property property : implClassInfo.propertyDefs) {
+			if (property.fieldType.getKind() == TypeKind.BOOLEAN) {
+				packable.add(property);
+				bits += 1;
+				fieldBytes += 1;
+			} else if (isBoxedBoolean(property.fieldType)) {
+				packable.add(property);
+				bits += 2;
+				fieldBytes += 4;
+			}
+		}
+		boolean useLong = bits > 32;
+		int wordBits = useLong ? 64 : 32;
+		int wordBytes = useLong ? 8 * ((bits + 63) / 64) : 4;
+		if (packable.isEmpty() || wordBytes >= fieldBytes) {
+			return;
+		}
+		PackedWord word = null;
+		int bit = wordBits;
+		for (Property property : packable) {
+			int width = property.fieldType.getKind() == TypeKind.BOOLEAN ? 1 : 2;
+			if (bit + width > wordBits) {
+				word = new PackedWord("_bits" + implClassInfo.packedWords.size(), useLong ? "long" : "int");
+				implClassInfo.packedWords.add(word);
+				bit = 0;
+			}
+			property.packedWord = word;
+			property.packedMask = PackedWord.mask(bit++, useLong);
+			if (width == 2) {
+				property.packedNonNullMask = PackedWord.mask(bit++, useLong);
+			}
+		}
+	}
+
+	private boolean isBoxedBoolean(TypeMirror t) {
+		return t.getKind() == TypeKind.DECLARED
+				&& ((TypeElement) ((DeclaredType) t).asElement()).getQualifiedName().contentEquals("java.lang.Boolean");
+	}
+
+	/**
+	 * Find how the JSON codec and the patches read and write a property.
+	 * 
+	 * @return false if the property type has no direct mapping.
+	 */
+	private boolean resolveValueKind(Property property) {
+		TypeMirror type = property.fieldType;
+		PrimitiveType primitiveType = getPrimitiveType(type);
+		if (primitiveType != null) {
+			property.valueKind = Property.capitalizedKind(primitiveType.getKind());
+			property.boxed = !type.getKind().isPrimitive();
 			return true;
 		}
-		// Was the base interface actually processed?
-		ImplClassInfo baseImpl = processedInterfaces.get(implClassInfo.baseInterface);
-		if (baseImpl == null || !validateImplClassInfo(baseImpl)) {
+		if (type.getKind() == TypeKind.ARRAY) {
+			TypeMirror componentType = ((ArrayType) type).getComponentType();
+			if (componentType.getKind().isPrimitive()) {
+				property.valueKind = Property.capitalizedKind(componentType.getKind()) + "Array";
+				return true;
+			}
+			if (isStringType(componentType)) {
+				property.valueKind = "StringArray";
+				return true;
+			}
+			return false;
+		}
+		if (isStringType(type)) {
+			property.valueKind = "String";
+			return true;
+		}
+		if (type.getKind() != TypeKind.DECLARED) {
+			return false;
+		}
+		// Enums by their names, nested beans by their own codecs
+		if (((DeclaredType) type).asElement().getKind() == ElementKind.ENUM) {
+			property.valueKind = "Enum";
+			property.enumType = true;
+			return true;
+		}
+		if (property.beanImpl != null) {
+			property.valueKind = "Bean";
+			return true;
+		}
+		return false;
+	}
+
+	private boolean isStringType(TypeMirror t) {
+		return t.getKind() == TypeKind.DECLARED
+				&& ((TypeElement) ((DeclaredType) t).asElement()).getQualifiedName().contentEquals("java.lang.String");
+	}
+
+	private boolean validateImplClassInfo(ImplClassInfo implClassInfo) throws IOException {
+		// Collect the implementations up the hierarchy that are not linked yet, without recursion
+		List<ImplClassInfo> unlinked = new ArrayList<>();
+		ImplClassInfo top = implClassInfo;
+		while (top != null && !top.invalid && top.baseInterface != null && top.baseImpl == null) {
+			unlinked.add(top);
+			top = findImplClassInfo(top.baseInterface);
+		}
+		// Link them from the top down, each one is valid if its base is
+		ImplClassInfo baseImpl = top;
+		for (int i = unlinked.size() - 1; i >= 0; --i) {
+			ImplClassInfo derivedImpl = unlinked.get(i);
+			if (baseImpl == null || baseImpl.invalid) {
+				derivedImpl.invalid = true;
+				tracker.addIssue("base interface %s is not a generated bean", derivedImpl.baseInterface);
+			} else {
+				linkBaseImpl(derivedImpl, baseImpl);
+			}
+			baseImpl = derivedImpl;
+		}
+		return !implClassInfo.invalid;
+	}
+
+	/**
+	 * Link a valid base implementation to an implementation, unless they do not match.
+	 * 
+	 * @return false if the implementation was marked invalid.
+	 */
+	private boolean linkBaseImpl(ImplClassInfo implClassInfo, ImplClassInfo baseImpl) {
+		// Immutable fields cannot be modified by a mutable subclass, nor the other way around
+		if (implClassInfo.immutable != baseImpl.immutable) {
+			implClassInfo.invalid = true;
+			tracker.addIssue("base interface %s is %s", implClassInfo.baseInterface,
+					baseImpl.immutable ? "immutable" : "mutable");
+			return false;
+		}
+		// The cached hash code is reset by the setters of the base implementation too
+		if (implClassInfo.cacheHashCode && !baseImpl.cacheHashCode) {
+			implClassInfo.invalid = true;
+			tracker.addIssue("base interface %s does not cache its hash code", implClassInfo.baseInterface);
+			return false;
+		}
+		// Properties are identified by their names across the hierarchy
+		for (Property property : baseImpl.getAllPropertyDefs()) {
+			if (implClassInfo.properties.containsKey(property.name)) {
+				implClassInfo.invalid = true;
+				tracker.addIssue("property %s is already defined by base interface %s", property.name,
+						implClassInfo.baseInterface);
+				return false;
+			}
+		}
+		// The reset of a pooled bean resets its base implementation too, and every class of a pooled hierarchy
+		// resets its own fields
+		if (implClassInfo.pooled != baseImpl.pooled) {
 			implClassInfo.invalid = true;
-			tracker.addIssue("base interface %s is not a generated bean", implClassInfo.baseInterface);
+			tracker.addIssue("base interface %s is %spooled", implClassInfo.baseInterface,
+					baseImpl.pooled ? "" : "not ");
 			return false;
 		}
+		// The dirty bits of a hierarchy are marked by the setters of all its classes, and sized by all its
+		// properties
+		if (implClassInfo.trackChanges != baseImpl.trackChanges) {
+			implClassInfo.invalid = true;
+			tracker.addIssue("base interface %s %s changes", implClassInfo.baseInterface,
+					baseImpl.trackChanges ? "tracks" : "does not track");
+			return false;
+		}
+		// Fields of the base implementation are updated concurrently too, or not at all
+		if (implClassInfo.concurrent != baseImpl.concurrent) {
+			implClassInfo.invalid = true;
+			tracker.addIssue("base interface %s is %sconcurrent", implClassInfo.baseInterface,
+					baseImpl.concurrent ? "" : "not ");
+			return false;
+		}
+		// A class is comparable to the interface of its first comparable implementation only
+		if (!implClassInfo.comparableBy.isEmpty()) {
+			for (ImplClassInfo comparableImpl = baseImpl; comparableImpl != null; comparableImpl = comparableImpl.baseImpl) {
+				if (!comparableImpl.comparableBy.isEmpty()) {
+					implClassInfo.invalid = true;
+					tracker.addIssue("base interface %s is already comparable", comparableImpl.intfElement);
+					return false;
+				}
+			}
+			Map<String, Property> baseProperties = new HashMap<>();
+			for (Property property : baseImpl.getAllPropertyDefs()) {
+				baseProperties.put(property.name, property);
+			}
+			for (String name : implClassInfo.comparableBy) {
+				Property property = baseProperties.get(name);
+				if (!implClassInfo.properties.containsKey(name)
+						&& (property == null || !isComparableType(property.fieldType))) {
+					implClassInfo.invalid = true;
+					tracker.addIssue("property %s in comparableBy is not a comparable property", name);
+					return false;
+				}
+			}
+		}
 		// Done
 		implClassInfo.baseImpl = baseImpl;
 		return true;
@@ -463,19 +1147,369 @@ public class NIBeansProcessor extends AbstractProcessor {
 		public final TypeElement baseInterface;
 		public ImplClassInfo baseImpl;
 		public final String clsName;
+		public final String factoryMethodName;
 		public Map<String, Property> properties = new TreeMap<>();
 		public final Collection<Property> propertyDefs = properties.values();
+		public boolean cacheHashCode;
+		public boolean immutable;
+		public boolean pooled;
+		// The binary name of the interface, as returned by Class.getName()
+		public String binaryName;
+		// Where the implementation class goes, top-level classes have no container
+		public String pkgName;
+		public String containerClassName;
+		public boolean trackChanges;
+		public boolean compactLayout;
+		public boolean concurrent;
+		public final List<PackedWord> packedWords = new ArrayList<>();
+		// The properties of the key declared by this interface, in the order of their getters
+		public final List<Property> keyPropertyDefs = new ArrayList<>();
+		public boolean record;
+		public boolean json;
+		public boolean columns;
+		public boolean patches;
+		public boolean comparators;
+		// The fixed-size records of the store, with a description of their layout that files are checked against
+		public boolean store;
+		public int recordSize;
+		int recordAlignment;
+		String recordLayout;
+		// The names of the properties of the natural order
+		public List<String> comparableBy = Collections.emptyList();
 		boolean invalid = false;
+		boolean prepared;
+		PerfectHash nameHash;
 
 		ImplClassInfo(TypeElement intfElement, TypeElement baseInterface) {
 			this.intfElement = intfElement;
 			this.baseInterface = baseInterface;
 			clsName = intfElement.getSimpleName() + "_impl";
+			factoryMethodName = "new" + intfElement.getSimpleName();
+		}
+
+		/**
+		 * Whether the implementation is a top-level class rather than nested in a container class.
+		 */
+		public boolean isTopLevel() {
+			return containerClassName == null;
+		}
+
+		/**
+		 * The name that refers to the implementation class from the other generated classes.
+		 */
+		public String getRefName() {
+			return isTopLevel() ? pkgName + "." + clsName : clsName;
+		}
+
+		/**
+		 * The binary name of the provider class, as returned by Class.getName().
+		 */
+		public String getProviderName() {
+			return pkgName + "." + (isTopLevel() ? "" : containerClassName + "$") + clsName + "$Provider";
+		}
+
+		/**
+		 * All the properties of the bean, starting with those of the base implementations.
+		 */
+		public List<Property> getAllPropertyDefs() {
+			List<Property> allProperties = baseImpl != null ? baseImpl.getAllPropertyDefs()
+					: new ArrayList<Property>();
+			allProperties.addAll(propertyDefs);
+			return allProperties;
+		}
+
+		/**
+		 * All the properties of the bean with their indexes in {@link #getAllPropertyDefs()}.
+		 */
+		public List<IndexedProperty> getIndexedProperties() {
+			List<IndexedProperty> indexedProperties = new ArrayList<>();
+			for (Property property : getAllPropertyDefs()) {
+				indexedProperties.add(new IndexedProperty(indexedProperties.size(), property));
+			}
+			return indexedProperties;
+		}
+
+		/**
+		 * The properties of primitive types with their indexes, grouped by their types.
+		 */
+		public List<PrimitiveProperties> getPrimitiveProperties() {
+			Map<TypeKind, PrimitiveProperties> propertiesByKind = new EnumMap<>(TypeKind.class);
+			for (IndexedProperty indexedProperty : getIndexedProperties()) {
+				TypeKind kind = indexedProperty.property.fieldType.getKind();
+				if (kind.isPrimitive()) {
+					PrimitiveProperties primitiveProperties = propertiesByKind.get(kind);
+					if (primitiveProperties == null) {
+						primitiveProperties = new PrimitiveProperties(kind);
+						propertiesByKind.put(kind, primitiveProperties);
+					}
+					primitiveProperties.properties.add(indexedProperty);
+				}
+			}
+			return new ArrayList<>(propertiesByKind.values());
+		}
+
+		/**
+		 * The properties that have fields of their own, ordered by decreasing field size in compact beans.
+		 */
+		public List<Property> getFieldDefs() {
+			List<Property> fieldDefs = new ArrayList<>();
+			for (Property property : propertyDefs) {
+				if (!property.isPacked()) {
+					fieldDefs.add(property);
+				}
+			}
+			if (compactLayout) {
+				Collections.sort(fieldDefs, new Comparator<Property>() {
+					@Override
+					public int compare(Property p1, Property p2) {
+						return Integer.compare(p2.getFieldSize(), p1.getFieldSize());
+					}
+				});
+			}
+			return fieldDefs;
+		}
+
+		public List<PackedWord> getPackedWords() {
+			return packedWords;
+		}
+
+		public List<Property> getPackedProperties() {
+			List<Property> packedProperties = new ArrayList<>();
+			for (Property property : propertyDefs) {
+				if (property.isPacked()) {
+					packedProperties.add(property);
+				}
+			}
+			return packedProperties;
+		}
+
+		/**
+		 * The number of words of the dirty bits of all the properties.
+		 */
+		public int getDirtyWordCount() {
+			return (getAllPropertyDefs().size() + 63) / 64;
+		}
+
+		/**
+		 * The words of the dirty bits of all the properties.
+		 */
+		public List<Integer> getDirtyWords() {
+			return range(0, getDirtyWordCount());
+		}
+
+		/**
+		 * The words of the dirty bits that this class adds to those of its base implementation.
+		 */
+		public List<Integer> getDeclaredDirtyWords() {
+			if (!trackChanges) {
+				return Collections.emptyList();
+			}
+			return range(baseImpl != null && baseImpl.trackChanges ? baseImpl.getDirtyWordCount() : 0,
+					getDirtyWordCount());
+		}
+
+		/**
+		 * The masks of the dirty bits of the properties of this class, by word.
+		 */
+		public List<DirtyMask> getDirtyMasks() {
+			Map<Integer, Long> masks = new TreeMap<>();
+			for (Property property : propertyDefs) {
+				Long mask = masks.get(property.getDirtyWord());
+				masks.put(property.getDirtyWord(), (mask != null ? mask : 0L) | (1L << property.index));
+			}
+			List<DirtyMask> dirtyMasks = new ArrayList<>(masks.size());
+			for (Map.Entry<Integer, Long> mask : masks.entrySet()) {
+				dirtyMasks.add(new DirtyMask(mask.getKey(), mask.getValue()));
+			}
+			return dirtyMasks;
+		}
+
+		private static List<Integer> range(int from, int to) {
+			List<Integer> values = new ArrayList<>();
+			for (int i = from; i < to; ++i) {
+				values.add(i);
+			}
+			return values;
+		}
+
+		/**
+		 * The perfect hash of the names of all the properties, or null if the accessor switches on the names.
+		 */
+		public PerfectHash getNameHash() {
+			return nameHash;
+		}
+
+		/**
+		 * The properties of this class that are written by its JSON codec.
+		 */
+		public List<Property> getJsonPropertyDefs() {
+			List<Property> jsonProperties = new ArrayList<>();
+			for (Property property : propertyDefs) {
+				if (property.valueKind != null) {
+					jsonProperties.add(property);
+				}
+			}
+			return jsonProperties;
+		}
+
+		/**
+		 * The properties of the JSON codec grouped by the hashes of their names, in the order of their first
+		 * properties.
+		 */
+		public List<List<Property>> getJsonNameCases() {
+			Map<Integer, List<Property>> cases = new LinkedHashMap<>();
+			for (Property property : getJsonPropertyDefs()) {
+				List<Property> properties = cases.get(property.getNameHash());
+				if (properties == null) {
+					properties = new ArrayList<>();
+					cases.put(property.getNameHash(), properties);
+				}
+				properties.add(property);
+			}
+			return new ArrayList<>(cases.values());
+		}
+
+		/**
+		 * The properties that patches carry, all of them for immutable beans and the writable ones otherwise,
+		 * indexed by their bits in the bitmap of a patch.
+		 */
+		public List<IndexedProperty> getPatchProperties() {
+			List<IndexedProperty> patchProperties = new ArrayList<>();
+			for (Property property : getAllPropertyDefs()) {
+				if (immutable || property.setter != null || property.chainSetter != null) {
+					patchProperties.add(new IndexedProperty(patchProperties.size(), property));
+				}
+			}
+			return patchProperties;
+		}
+
+		/**
+		 * The properties of the composite key of the bean, starting with those of the base implementations.
+		 */
+		public List<Property> getKeyProperties() {
+			List<Property> keyProperties = baseImpl != null ? baseImpl.getKeyProperties() : new ArrayList<Property>();
+			keyProperties.addAll(keyPropertyDefs);
+			return keyProperties;
+		}
+
+		/**
+		 * All the properties of the bean that the comparators can compare.
+		 */
+		public List<Property> getComparableProperties() {
+			List<Property> comparableProperties = new ArrayList<>();
+			for (Property property : getAllPropertyDefs()) {
+				if (property.comparable) {
+					comparableProperties.add(property);
+				}
+			}
+			return comparableProperties;
+		}
+
+		/**
+		 * The properties of the natural order of the beans, empty unless declared by this class.
+		 */
+		public List<Property> getNaturalOrder() {
+			Map<String, Property> allProperties = new HashMap<>();
+			for (Property property : getAllPropertyDefs()) {
+				allProperties.put(property.name, property);
+			}
+			List<Property> naturalOrder = new ArrayList<>(comparableBy.size());
+			for (String name : comparableBy) {
+				naturalOrder.add(allProperties.get(name));
+			}
+			return naturalOrder;
+		}
+
+		/**
+		 * A 64-bit FNV-1a hash of the layout of the records, which identifies the layout in the files of the store.
+		 */
+		public long getRecordLayoutHash() {
+			long hash = 0xcbf29ce484222325L;
+			for (int i = 0; i < recordLayout.length(); ++i) {
+				hash = (hash ^ recordLayout.charAt(i)) * 0x100000001b3L;
+			}
+			return hash;
+		}
+
+		/**
+		 * Whether this is the first class in the hierarchy that caches its hash code.
+		 */
+		public boolean isDeclaresHashCodeCache() {
+			return cacheHashCode && (baseImpl == null || !baseImpl.cacheHashCode);
+		}
+	}
+
+	public static class IndexedProperty {
+		public final int index;
+		public final Property property;
+
+		IndexedProperty(int index, Property property) {
+			this.index = index;
+			this.property = property;
+		}
+	}
+
+	public static class PrimitiveProperties {
+		public final String kind;
+		public final String type;
+		public final List<IndexedProperty> properties = new ArrayList<>();
+
+		PrimitiveProperties(TypeKind kind) {
+			this.kind = Property.capitalizedKind(kind);
+			this.type = kind.name().toLowerCase();
+		}
+	}
+
+	public static class PackedWord {
+		public final String name;
+		public final String type;
+
+		PackedWord(String name, String type) {
+			this.name = name;
+			this.type = type;
+		}
+
+		static String mask(int bit, boolean isLong) {
+			return isLong ? "0x" + Long.toHexString(1L << bit) + "L" : "0x" + Integer.toHexString(1 << bit);
+		}
+	}
+
+	public static class DirtyMask {
+		public final int word;
+		public final String mask;
+
+		DirtyMask(int word, long mask) {
+			this.word = word;
+			this.mask = "0x" + Long.toHexString(mask) + "L";
 		}
 	}
 
 	public static class Property {
+		private static final Map<TypeKind, Integer> WIRE_TYPES = new EnumMap<>(TypeKind.class);
+		private static final Map<TypeKind, Integer> ARRAY_WIRE_TYPES = new EnumMap<>(TypeKind.class);
+		static {
+			WIRE_TYPES.put(TypeKind.BOOLEAN, BeanSerializationHelper.BOOLEAN);
+			WIRE_TYPES.put(TypeKind.BYTE, BeanSerializationHelper.BYTE);
+			WIRE_TYPES.put(TypeKind.SHORT, BeanSerializationHelper.SHORT);
+			WIRE_TYPES.put(TypeKind.CHAR, BeanSerializationHelper.CHAR);
+			WIRE_TYPES.put(TypeKind.INT, BeanSerializationHelper.INT);
+			WIRE_TYPES.put(TypeKind.LONG, BeanSerializationHelper.LONG);
+			WIRE_TYPES.put(TypeKind.FLOAT, BeanSerializationHelper.FLOAT);
+			WIRE_TYPES.put(TypeKind.DOUBLE, BeanSerializationHelper.DOUBLE);
+			ARRAY_WIRE_TYPES.put(TypeKind.BOOLEAN, BeanSerializationHelper.BOOLEAN_ARRAY);
+			ARRAY_WIRE_TYPES.put(TypeKind.BYTE, BeanSerializationHelper.BYTE_ARRAY);
+			ARRAY_WIRE_TYPES.put(TypeKind.SHORT, BeanSerializationHelper.SHORT_ARRAY);
+			ARRAY_WIRE_TYPES.put(TypeKind.CHAR, BeanSerializationHelper.CHAR_ARRAY);
+			ARRAY_WIRE_TYPES.put(TypeKind.INT, BeanSerializationHelper.INT_ARRAY);
+			ARRAY_WIRE_TYPES.put(TypeKind.LONG, BeanSerializationHelper.LONG_ARRAY);
+			ARRAY_WIRE_TYPES.put(TypeKind.FLOAT, BeanSerializationHelper.FLOAT_ARRAY);
+			ARRAY_WIRE_TYPES.put(TypeKind.DOUBLE, BeanSerializationHelper.DOUBLE_ARRAY);
+		}
+
 		public String name;
+		public ImplClassInfo owner;
+		// The index in the accessor of the bean, set once the base implementations are linked
+		public int index;
 		public ExecutableElement getter;
 		public ExecutableElement booleanGetter;
 		public ExecutableElement setter;
@@ -484,15 +1518,271 @@ public class NIBeansProcessor extends AbstractProcessor {
 		public ExecutableElement chainSetter;
 		public TypeMirror chainSetterType;
 		public TypeMirror fieldType;
+		// The bits of a packed boolean property
+		public PackedWord packedWord;
+		public String packedMask;
+		public String packedNonNullMask;
+		// Whether a primitive property of a concurrent bean is stored as its bits in an int or long field
+		public boolean atomicBits;
+		// The implementation of a property that is a bean itself
+		public ImplClassInfo beanImpl;
+		// Value mapping of the JSON codec and the patches, where the kind names the methods of their readers
+		public String valueKind;
+		public boolean boxed;
+		public boolean enumType;
+		// Whether the comparators compare the property, through the static compare() method of this class for
+		// primitive values or through compareTo() for other values
+		public boolean comparable;
+		public String compareClass;
+		// The expression that creates the lazy default value of the property, or null
+		public String defaultConstruction;
+		// The identifier of the property in the serialized form, unique in its class
+		public int serialTag;
+		// The maximal length of a String property, or null if unbounded
+		public Integer maxLength;
+		// The offset of the property in the records of the store
+		public int storeOffset;
 
 		public String getFieldName() {
 			return name;
 		}
 
+
+		/**
+		 * The hash of the property name, as matched by {@link org.nibeans.json.JsonReader#nextNameHash()}.
+		 */
+		public int getNameHash() {
+			return name.hashCode();
+		}
+
+		public boolean isPacked() {
+			return packedWord != null;
+		}
+
+		/**
+		 * The size of a primitive field in bytes, for ordering fields, and 0 for references.
+		 */
+		public int getFieldSize() {
+			switch (fieldType.getKind()) {
+			case LONG:
+			case DOUBLE:
+				return 8;
+			case INT:
+			case FLOAT:
+				return 4;
+			case SHORT:
+			case CHAR:
+				return 2;
+			case BOOLEAN:
+			case BYTE:
+				return 1;
+			default:
+				return 0;
+			}
+		}
+
+		/**
+		 * The alignment of the property in the records of the store, or 0 if it has no fixed size there.
+		 */
+		public int getStoreAlignment() {
+			return maxLength != null ? 2 : getFieldSize();
+		}
+
+		public int getStoreSize() {
+			return maxLength != null ? RecordFile.stringSize(maxLength) : getFieldSize();
+		}
+
+		/**
+		 * The name of the value in the methods of {@link java.nio.ByteBuffer}, or in those of
+		 * {@link org.nibeans.internal.RecordFile} for booleans and strings.
+		 */
+		public String getStoreKind() {
+			if (maxLength != null) {
+				return "String";
+			}
+			return fieldType.getKind() == TypeKind.BYTE ? "" : capitalizedKind(fieldType.getKind());
+		}
+
+		public boolean isStoreHelper() {
+			return maxLength != null || fieldType.getKind() == TypeKind.BOOLEAN;
+		}
+
+		public int getDirtyWord() {
+			return index / 64;
+		}
+
+		public int getDirtyBit() {
+			return index % 64;
+		}
+
+		/**
+		 * The wire type of the property in the serialized form, one of the constants of
+		 * {@link org.nibeans.internal.BeanSerializationHelper}.
+		 */
+		public int getWireType() {
+			if (fieldType.getKind().isPrimitive()) {
+				return WIRE_TYPES.get(fieldType.getKind());
+			}
+			if (fieldType.getKind() == TypeKind.ARRAY) {
+				TypeKind componentKind = ((ArrayType) fieldType).getComponentType().getKind();
+				return componentKind.isPrimitive() ? ARRAY_WIRE_TYPES.get(componentKind)
+						: BeanSerializationHelper.OBJECT_ARRAY;
+			}
+			return BeanSerializationHelper.OBJECT;
+		}
+
+		/**
+		 * The capitalized name of the primitive field type, as used by the methods of {@link java.io.DataOutput}
+		 * and {@link java.io.DataInput}, or null if the field type is not primitive.
+		 */
+		public String getPrimitiveKind() {
+			return fieldType.getKind().isPrimitive() ? capitalizedKind(fieldType.getKind()) : null;
+		}
+
+		/**
+		 * Same as {@link #getPrimitiveKind()}, for the component type of arrays of primitives.
+		 */
+		public String getPrimitiveArrayKind() {
+			if (fieldType.getKind() != TypeKind.ARRAY) {
+				return null;
+			}
+			TypeKind componentKind = ((ArrayType) fieldType).getComponentType().getKind();
+			return componentKind.isPrimitive() ? capitalizedKind(componentKind) : null;
+		}
+
+		public boolean isObjectArray() {
+			return fieldType.getKind() == TypeKind.ARRAY
+					&& !((ArrayType) fieldType).getComponentType().getKind().isPrimitive();
+		}
+
+		/**
+		 * An expression that creates an empty array of the field type, which must be an array type.
+		 */
+		public String getEmptyArray() {
+			String erasedType = getErasedFieldType();
+			int dimsIndex = erasedType.indexOf('[');
+			return "new " + erasedType.substring(0, dimsIndex) + "[0]" + erasedType.substring(dimsIndex + 2);
+		}
+
+		/**
+		 * An expression that creates an array of the field type, with a length given by a variable named
+		 * capacity.
+		 */
+		public String getNewColumn() {
+			String erasedType = getErasedFieldType();
+			int dimsIndex = erasedType.indexOf('[');
+			String newColumn = dimsIndex < 0 ? "new " + erasedType + "[capacity]"
+					: "new " + erasedType.substring(0, dimsIndex) + "[capacity]" + erasedType.substring(dimsIndex);
+			return erasedType.equals(fieldType.toString()) ? newColumn : "(" + fieldType + "[]) " + newColumn;
+		}
+
+		/**
+		 * The field type without type arguments, as used by class literals and since generic arrays cannot be
+		 * created.
+		 */
+		public String getErasedFieldType() {
+			String erasedType = fieldType.toString();
+			while (erasedType.contains("<")) {
+				erasedType = erasedType.replaceAll("<[^<>]*>", "");
+			}
+			return erasedType;
+		}
+
+		/**
+		 * Whether the field type has type arguments, which its class literal does not.
+		 */
+		public boolean isGenericFieldType() {
+			return !getErasedFieldType().equals(fieldType.toString());
+		}
+
+		static String capitalizedKind(TypeKind kind) {
+			String name = kind.name();
+			return name.charAt(0) + name.substring(1).toLowerCase();
+		}
+
+		/**
+		 * The type returned by the getter, which can be primitive for a boxed field.
+		 */
+		public TypeMirror getGetterType() {
+			return (getter != null ? getter : booleanGetter).getReturnType();
+		}
+
+		/**
+		 * The kind of the atomic field updater of the property in concurrent beans, Integer, Long or Reference.
+		 */
+		public String getAtomicKind() {
+			switch (fieldType.getKind()) {
+			case LONG:
+			case DOUBLE:
+				return "Long";
+			case ARRAY:
+			case DECLARED:
+				return "Reference";
+			default:
+				return "Integer";
+			}
+		}
+
+		/**
+		 * The type of the field, which differs from the property type for properties stored as bits.
+		 */
+		public String getStorageType() {
+			return !atomicBits ? fieldType.toString() : fieldType.getKind() == TypeKind.DOUBLE ? "long" : "int";
+		}
+
+		/**
+		 * Whether the property has getAndAdd and addAndGet methods in concurrent beans.
+		 */
+		public boolean isNumeric() {
+			TypeKind kind = fieldType.getKind();
+			return kind.isPrimitive() && kind != TypeKind.BOOLEAN && kind != TypeKind.CHAR;
+		}
+
+		public String getCapitalizedName() {
+			return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+		}
+
+		public String getGetterName() {
+			return (getter != null ? getter : booleanGetter).getSimpleName().toString();
+		}
+
+		/**
+		 * The initial value of the field, as a java literal.
+		 */
+		public String getDefaultValue() {
+			switch (fieldType.getKind()) {
+			case BOOLEAN:
+				return "false";
+			case BYTE:
+				return "(byte) 0";
+			case SHORT:
+				return "(short) 0";
+			case CHAR:
+				return "(char) 0";
+			case INT:
+				return "0";
+			case LONG:
+				return "0L";
+			case FLOAT:
+				return "0.0f";
+			case DOUBLE:
+				return "0.0d";
+			default:
+				return "null";
+			}
+		}
+
 		public boolean isPrimitive() {
 			return getter.getReturnType().getKind().isPrimitive();
 		}
 
+		/**
+		 * Whether the getter may return null, since it does not return a primitive.
+		 */
+		public boolean isNullable() {
+			return !(getter != null ? getter : booleanGetter).getReturnType().getKind().isPrimitive();
+		}
+
 		public boolean isArray() {
 			return getter.getReturnType().getKind() == TypeKind.ARRAY;
 		}
@@ -0,0 +1,158 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.processor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.nibeans.internal.BeanAccessor;
+
+/**
+ * A collision free hash of a fixed set of names, found at compile time by hash and displace. The names are split
+ * into buckets by {@link String#hashCode()}, and the names of a bucket are placed in the table by a second hash of
+ * their characters, displaced by a value per bucket. A name is resolved by {@link BeanAccessor#slot(String, int[],
+ * int)}, and the table maps every slot to the index of its name, or -1. Names with equal hash codes share a bucket
+ * and are told apart by the second hash.
+ * 
+ * @author Tareq Sharafy (tareq.sharafy@sap.com)
+ *
+ */
+public class PerfectHash {
+
+	// Bounds the search, the table has at most 4 slots per name
+	private static final int MAX_DISPLACEMENT = 1 << 12;
+	private static final int MAX_GROWTH = 2;
+
+	private final int[] displacements;
+	private final int shift;
+	private final int[] slots;
+
+	private PerfectHash(int[] displacements, int shift, int[] slots) {
+		this.displacements = displacements;
+		this.shift = shift;
+		this.slots = slots;
+	}
+
+	/**
+	 * Find a hash of the given distinct names, with the smallest table possible.
+	 * 
+	 * @return null if no hash was found within the bounds of the search.
+	 */
+	public static PerfectHash of(List<String> names) {
+		int bits = 1;
+		while ((1 << bits) < names.size()) {
+			++bits;
+		}
+		int bucketCount = Integer.highestOneBit(Math.max(1, names.size() / 2));
+		List<List<Integer>> buckets = new ArrayList<>(bucketCount);
+		for (int b = 0; b < bucketCount; ++b) {
+			buckets.add(new ArrayList<Integer>());
+		}
+		int[] hashes = new int[names.size()];
+		for (int i = 0; i < names.size(); ++i) {
+			hashes[i] = BeanAccessor.secondHash(names.get(i));
+			buckets.get(BeanAccessor.bucket(names.get(i), bucketCount)).add(i);
+		}
+		// The largest buckets are the hardest to place, so they go first
+		List<Integer> order = new ArrayList<>(bucketCount);
+		for (int b = 0; b < bucketCount; ++b) {
+			order.add(b);
+		}
+		final List<List<Integer>> finalBuckets = buckets;
+		Collections.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				int bySize = Integer.compare(finalBuckets.get(b).size(), finalBuckets.get(a).size());
+				return bySize != 0 ? bySize : Integer.compare(a, b);
+			}
+		});
+		for (int growth = 0; growth <= MAX_GROWTH; ++growth, ++bits) {
+			int[] displacements = new int[bucketCount];
+			int[] slots = new int[1 << bits];
+			if (place(buckets, order, hashes, 32 - bits, displacements, slots)) {
+				return new PerfectHash(displacements, 32 - bits, slots);
+			}
+		}
+		return null;
+	}
+
+	private static boolean place(List<List<Integer>> buckets, List<Integer> order, int[] hashes, int shift,
+			int[] displacements, int[] slots) {
+		Arrays.fill(slots, -1);
+		for (int b : order) {
+			List<Integer> bucket = buckets.get(b);
+			if (bucket.isEmpty()) {
+				break;
+			}
+			int displacement = findDisplacement(bucket, hashes, shift, slots);
+			if (displacement < 0) {
+				return false;
+			}
+			displacements[b] = displacement;
+			for (int i : bucket) {
+				slots[BeanAccessor.displace(hashes[i], displacement, shift)] = i;
+			}
+		}
+		return true;
+	}
+
+	private static int findDisplacement(List<Integer> bucket, int[] hashes, int shift, int[] slots) {
+		int[] taken = new int[bucket.size()];
+		search: for (int displacement = 0; displacement < MAX_DISPLACEMENT; ++displacement) {
+			for (int j = 0; j < bucket.size(); ++j) {
+				int slot = BeanAccessor.displace(hashes[bucket.get(j)], displacement, shift);
+				if (slots[slot] >= 0) {
+					continue search;
+				}
+				for (int k = 0; k < j; ++k) {
+					if (taken[k] == slot) {
+						continue search;
+					}
+				}
+				taken[j] = slot;
+			}
+			return displacement;
+		}
+		return -1;
+	}
+
+	public int getShift() {
+		return shift;
+	}
+
+	/**
+	 * The displacements of the buckets as a java array initializer.
+	 */
+	public String getDisplacements() {
+		return initializer(displacements);
+	}
+
+	/**
+	 * The table as a java array initializer.
+	 */
+	public String getSlots() {
+		return initializer(slots);
+	}
+
+	private static String initializer(int[] values) {
+		String s = Arrays.toString(values);
+		return "{ " + s.substring(1, s.length() - 1) + " }";
+	}
+
+}
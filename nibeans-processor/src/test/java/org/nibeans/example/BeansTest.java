@@ -15,19 +15,92 @@
  */
 package org.nibeans.example;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ReadOnlyBufferException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import org.junit.Test;
+import org.nibeans.BeanArena;
 import org.nibeans.BeanFactory;
+import org.nibeans.BeanFactoryMetrics;
+import org.nibeans.UpdateOperator;
+import org.nibeans.example.beans.Account;
 import org.nibeans.example.beans.BadBeanA;
+import org.nibeans.example.beans.BadBeanB;
+import org.nibeans.example.beans.BadComparableBean;
+import org.nibeans.example.beans.BadConcurrentBean;
+import org.nibeans.example.beans.BadDefaultBean;
+import org.nibeans.example.beans.BadImmutableBean;
+import org.nibeans.example.beans.BadMaxLengthBean;
+import org.nibeans.example.beans.BadPooledBean;
+import org.nibeans.example.beans.BadTrackingBean;
+import org.nibeans.example.beans.BadUnpooledBean;
+import org.nibeans.example.beans.BadUntrackedBean;
 import org.nibeans.example.beans.Car;
+import org.nibeans.example.beans.CompactSensor;
+import org.nibeans.example.beans.Coordinates;
+import org.nibeans.example.beans.ExpressParcel;
 import org.nibeans.example.beans.GasolineCar;
 import org.nibeans.example.beans.GenericBeanA;
+import org.nibeans.example.beans.HashCollisionBean;
+import org.nibeans.example.beans.HashCollisionPair;
+import org.nibeans.example.beans.Money;
+import org.nibeans.example.beans.Parcel;
+import org.nibeans.example.beans.Permissions;
 import org.nibeans.example.beans.Person;
+import org.nibeans.example.beans.Playlist;
+import org.nibeans.example.beans.SavingsAccount;
+import org.nibeans.example.beans.TaggedMoney;
+import org.nibeans.example.beans.Tick;
+import org.nibeans.example.beans.Trip;
+import org.nibeans.example.beans.beanimplementations.BeanImplementations;
+import org.nibeans.internal.AbstractBeanProvider;
+import org.nibeans.internal.BeanAccessor;
+import org.nibeans.internal.BeanProvider;
+import org.nibeans.internal.BeanProviderService;
+import org.nibeans.internal.BeanSerializationHelper;
+import org.nibeans.internal.DirtyTrackingBean;
+import org.nibeans.json.JsonReader;
+import org.nibeans.json.JsonWriter;
+import org.nibeans.processor.PerfectHash;
+import org.openjdk.jol.info.ClassLayout;
 
 public class BeansTest {
 
@@ -66,6 +139,47 @@ public class BeansTest {
 		}));
 	}
 
+	@Test
+	public void testHashCode() {
+		assertEquals(createPersonBean().hashCode(), createPersonBean().hashCode());
+		GasolineCar gasCar1 = BeanImplementations.newGasolineCar();
+		GasolineCar gasCar2 = BeanImplementations.newGasolineCar();
+		gasCar1.withMake("Audi").withOwners(new String[] { "a", "b" }).setAutomatic(true);
+		gasCar2.withMake("Audi").withOwners(new String[] { "a", "b" }).setAutomatic(true);
+		gasCar1.setOctaneLevel(95);
+		gasCar2.setOctaneLevel(95);
+		assertEquals(gasCar1, gasCar2);
+		assertEquals(gasCar1.hashCode(), gasCar2.hashCode());
+		// Base properties take part in the hash code
+		int hash = gasCar2.hashCode();
+		gasCar2.setMake("BMW");
+		assertNotEquals(hash, gasCar2.hashCode());
+	}
+
+	@Test
+	public void testCachedHashCode() {
+		Coordinates c1 = createCoordinates();
+		Coordinates c2 = createCoordinates();
+		assertEquals(c1, c2);
+		assertEquals(c1.hashCode(), c2.hashCode());
+		// Both zeros are equal, so they must have the same hash code
+		c1.setLatitude(0.0);
+		c2.setLatitude(-0.0);
+		assertEquals(c1, c2);
+		assertEquals(c1.hashCode(), c2.hashCode());
+		// Setters and chain setters invalidate the cached value
+		int hash = c1.hashCode();
+		c1.withLongitude(1.5);
+		assertNotEquals(hash, c1.hashCode());
+		c2.withLongitude(1.5);
+		assertEquals(c1.hashCode(), c2.hashCode());
+		Map<Coordinates, String> map = new HashMap<>();
+		map.put(c1, "c1");
+		assertEquals("c1", map.get(c2));
+		c2.setChecksum(new byte[] { 4, 5 });
+		assertNull(map.get(c2));
+	}
+
 	@Test
 	public void testBooleanProperties() {
 		Car car = BeanFactory.getInstance().createBean(Car.class);
@@ -113,6 +227,592 @@ public class BeansTest {
 		assertTrue(returnedObj == car);
 	}
 
+	@Test
+	public void testImmutableBeans() throws Exception {
+		assertTrue(Modifier.isFinal(BeanImplementations.Money_impl.class.getDeclaredField("amount").getModifiers()));
+		Money price = BeanImplementations.Money_impl.builder().amount(100).currency("EUR").build();
+		assertEquals(100, price.getAmount());
+		assertEquals("EUR", price.getCurrency());
+		// Chain setters return modified copies
+		Money discounted = price.withAmount(80);
+		assertEquals(100, price.getAmount());
+		assertEquals(80, discounted.getAmount());
+		assertEquals("EUR", discounted.getCurrency());
+		assertEquals(discounted, new BeanImplementations.Money_impl(80, "EUR"));
+		// Default instances
+		Money empty = BeanFactory.getInstance().createBean(Money.class);
+		assertEquals(0, empty.getAmount());
+		assertNull(empty.getCurrency());
+		// Copies keep the subclass and its properties
+		TaggedMoney tagged = BeanImplementations.TaggedMoney_impl.builder().amount(5).currency("USD")
+				.tags(new String[] { "tip" }).build();
+		Money taggedCopy = tagged.withCurrency("ILS");
+		assertTrue(taggedCopy instanceof TaggedMoney);
+		assertEquals("tip", ((TaggedMoney) taggedCopy).getTags()[0]);
+		assertEquals("ILS", taggedCopy.getCurrency());
+		assertEquals(5, taggedCopy.getAmount());
+		// Plain setters are rejected
+		assertNull(BeanFactory.getInstance().createBean(BadImmutableBean.class));
+	}
+
+	@Test
+	public void testSerialization() throws Exception {
+		GasolineCar gasCar = BeanImplementations.newGasolineCar();
+		gasCar.withMake("Audi").withOwners(new String[] { "a", null, "c" }).setPlateID("12-345-67");
+		gasCar.setOctaneLevel(98);
+		GasolineCar gasCarCopy = roundTrip(gasCar);
+		assertEquals(gasCar.getClass(), gasCarCopy.getClass());
+		assertEquals(gasCar.getMake(), gasCarCopy.getMake());
+		assertArrayEquals(gasCar.getOwners(), gasCarCopy.getOwners());
+		assertEquals(gasCar.getPlateID(), gasCarCopy.getPlateID());
+		assertEquals(98, gasCarCopy.getOctaneLevel());
+		// Primitive values and arrays
+		Coordinates coordinates = createCoordinates();
+		assertEquals(coordinates, roundTrip(coordinates));
+		coordinates.setChecksum(null);
+		assertEquals(coordinates, roundTrip(coordinates));
+		// Immutable beans
+		Money price = BeanImplementations.Money_impl.builder().amount(100).currency("EUR").build();
+		assertEquals(price, roundTrip(price));
+		// Names with equal hash codes get distinct tags
+		HashCollisionPair pair = BeanImplementations.newHashCollisionPair();
+		pair.setAa(7);
+		pair.setBB("b");
+		assertEquals(pair, roundTrip(pair));
+	}
+
+	@Test
+	public void testSerializationCompatibility() throws Exception {
+		// A person written by a newer version, which has an additional property
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			BeanSerializationHelper.writeHeader(out, 3);
+			BeanSerializationHelper.writeProperty(out, "nickname".hashCode(), BeanSerializationHelper.OBJECT);
+			out.writeObject("phil");
+			BeanSerializationHelper.writeProperty(out, "age".hashCode(), BeanSerializationHelper.INT);
+			out.writeInt(AGE);
+			BeanSerializationHelper.writeProperty(out, "scores".hashCode(), BeanSerializationHelper.LONG_ARRAY);
+			BeanSerializationHelper.write(out, new long[] { 1, 2 });
+		}
+		BeanImplementations.Person_impl person = new BeanImplementations.Person_impl();
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			person.readExternal(in);
+			// The whole block was consumed
+			assertEquals(-1, in.read());
+		}
+		assertEquals(AGE, person.getAge());
+		assertNull(person.getName());
+	}
+
+	@Test
+	public void testJsonWriter() throws Exception {
+		Person person = BeanImplementations.newPerson();
+		person.setAge(AGE);
+		person.setName("say \"hi\"\n");
+		StringWriter text = new StringWriter();
+		BeanImplementations.Person_impl.Json.write(person, JsonWriter.to(text));
+		assertEquals("{\"age\":30,\"name\":\"say \\\"hi\\\"\\n\"}", text.toString());
+		// The same as UTF-8 bytes
+		person.setName("\u00e9\u20ac\ud83d\ude00");
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		JsonWriter out = JsonWriter.to(bytes);
+		out.beginArray();
+		BeanImplementations.Person_impl.Json.write(person, out);
+		BeanImplementations.Person_impl.Json.write(null, out);
+		out.value(Long.MIN_VALUE).value(Double.NaN).endArray().flush();
+		assertEquals("[{\"age\":30,\"name\":\"\u00e9\u20ac\ud83d\ude00\"},null,-9223372036854775808,\"NaN\"]",
+				new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testJsonCodec() throws Exception {
+		Car car = BeanImplementations.newGasolineCar();
+		car.withMake("Audi").withOwners(new String[] { "a", null, "c" }).setAutomatic(true);
+		Trip trip = BeanImplementations.newTrip();
+		trip.setCar(car);
+		trip.setPurpose(Trip.Purpose.LEISURE);
+		trip.setCategory('b');
+		trip.setSpeeds(new float[] { 1.5f, Float.POSITIVE_INFINITY });
+		trip.setDestination(createCoordinates());
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (JsonWriter out = JsonWriter.to(bytes)) {
+			BeanImplementations.Trip_impl.Json.write(trip, out);
+		}
+		Trip tripCopy = BeanImplementations.Trip_impl.Json
+				.read(JsonReader.from(new ByteArrayInputStream(bytes.toByteArray())));
+		// Nested beans are read as their declared types
+		assertFalse(tripCopy.getCar() instanceof GasolineCar);
+		assertEquals("Audi", tripCopy.getCar().getMake());
+		assertTrue(tripCopy.getCar().isAutomatic());
+		assertArrayEquals(car.getOwners(), tripCopy.getCar().getOwners());
+		assertEquals(Trip.Purpose.LEISURE, tripCopy.getPurpose());
+		assertNull(tripCopy.getDistance());
+		assertEquals('b', tripCopy.getCategory());
+		assertArrayEquals(trip.getSpeeds(), tripCopy.getSpeeds(), 0);
+		assertEquals(trip.getDestination(), tripCopy.getDestination());
+		// Immutable beans, including the properties of base beans
+		TaggedMoney tagged = BeanImplementations.TaggedMoney_impl.builder().amount(5).currency("USD")
+				.tags(new String[] { "tip" }).build();
+		StringWriter text = new StringWriter();
+		BeanImplementations.TaggedMoney_impl.Json.write(tagged, JsonWriter.to(text));
+		assertEquals(tagged, BeanImplementations.TaggedMoney_impl.Json.read(JsonReader.from(text.toString())));
+	}
+
+	@Test
+	public void testJsonCompatibility() throws Exception {
+		// Unknown members are skipped, whitespace and escapes are allowed
+		String json = " { \"nickname\" : { \"a\": [1, 2.5e3, \"x\", null, true] }, \"age\" : 30 ,"
+				+ "\"n\\u0061me\":\"phil\\tip\", \"extra\": [] } ";
+		Person person = BeanImplementations.Person_impl.Json.read(JsonReader.from(json));
+		assertEquals(AGE, person.getAge());
+		assertEquals("phil\tip", person.getName());
+		// Bad input
+		try {
+			BeanImplementations.Person_impl.Json.read(JsonReader.from("{\"age\":\"30\"}"));
+			fail("type mismatch not detected");
+		} catch (IOException e) {
+			assertTrue(e.getMessage().contains("offset 7"));
+		}
+		// Names with equal hashes are told apart
+		HashCollisionPair pair = BeanImplementations.HashCollisionPair_impl.Json
+				.read(JsonReader.from("{\"bB\":\"b\",\"aa\":7}"));
+		assertEquals(7, pair.getAa());
+		assertEquals("b", pair.getBB());
+	}
+
+	@Test
+	public void testPatches() throws Exception {
+		Car car = BeanImplementations.newCar();
+		car.withMake("Audi").withOwners(new String[] { "a", null, "\u05d0" }).setAutomatic(true);
+		Trip trip = BeanImplementations.newTrip();
+		trip.setCar(car);
+		trip.setPurpose(Trip.Purpose.LEISURE);
+		trip.setCategory('b');
+		trip.setSpeeds(new float[] { 1.5f, Float.NaN });
+		trip.setDestination(createCoordinates());
+		// A full patch
+		byte[] fullPatch = BeanImplementations.Trip_impl.Patch.diff(null, trip);
+		Trip tripCopy = BeanImplementations.newTrip();
+		BeanImplementations.Trip_impl.Patch.applyPatch(tripCopy, fullPatch);
+		assertEquals(trip, tripCopy);
+		// Patches hold only the properties that changed
+		Trip changed = ((BeanImplementations.Trip_impl) tripCopy).deepCopy();
+		changed.setDistance(12.5);
+		changed.getDestination().setTimestamp(7);
+		byte[] patch = BeanImplementations.Trip_impl.Patch.diff(trip, changed);
+		assertTrue(patch.length < fullPatch.length);
+		assertEquals(2, BeanImplementations.Trip_impl.Patch.diff(trip, tripCopy).length);
+		tripCopy.setCategory('c');
+		assertEquals(3, BeanImplementations.Trip_impl.Patch.diff(trip, tripCopy).length);
+		tripCopy.setCategory('b');
+		BeanImplementations.Trip_impl.Patch.applyPatch(tripCopy, patch);
+		assertEquals(changed, tripCopy);
+		assertNotSame(changed.getDestination(), tripCopy.getDestination());
+		changed.setDistance(null);
+		BeanImplementations.Trip_impl.Patch.applyPatch(tripCopy, BeanImplementations.Trip_impl.Patch.diff(tripCopy, changed));
+		assertNull(tripCopy.getDistance());
+		// Properties of base beans, set through their setters
+		SavingsAccount account = BeanImplementations.newSavingsAccount();
+		account.withBalance(-5);
+		account.setRate(0.5);
+		SavingsAccount accountCopy = BeanImplementations.newSavingsAccount();
+		accountCopy.setRate(0.5);
+		((DirtyTrackingBean) accountCopy).clearDirty();
+		BeanImplementations.SavingsAccount_impl.Patch.applyPatch(accountCopy,
+				BeanImplementations.SavingsAccount_impl.Patch.diff(accountCopy, account));
+		assertEquals(-5, accountCopy.getBalance());
+		assertArrayEquals(new int[] { 0 }, ((DirtyTrackingBean) accountCopy).dirtyProperties());
+		// Immutable beans are patched into copies
+		Money price = BeanImplementations.Money_impl.builder().amount(100).currency("EUR").build();
+		Money discount = price.withAmount(80);
+		assertEquals(discount, BeanImplementations.Money_impl.Patch.applyPatch(price,
+				BeanImplementations.Money_impl.Patch.diff(price, discount)));
+		// Malformed patches
+		try {
+			BeanImplementations.Trip_impl.Patch.applyPatch(tripCopy, Arrays.copyOf(patch, patch.length - 1));
+			fail("truncated patch not detected");
+		} catch (IOException e) {
+		}
+		try {
+			BeanImplementations.Car_impl.Patch.applyPatch(car, patch);
+			fail("patch of another bean not detected");
+		} catch (IOException e) {
+		}
+	}
+
+	@Test
+	public void testColumns() {
+		BeanImplementations.GasolineCar_impl.Columns columns = new BeanImplementations.GasolineCar_impl.Columns(2);
+		for (int i = 0; i < 100; ++i) {
+			GasolineCar row = columns.add();
+			row.withMake("make" + i).setAutomatic(i % 2 == 0);
+			row.setOctaneLevel(i);
+		}
+		GasolineCar gasCar = BeanImplementations.newGasolineCar();
+		gasCar.withOwners(new String[] { "a" }).setAutomatic(true);
+		gasCar.setOctaneLevel(1000);
+		assertEquals(100, columns.add(gasCar));
+		assertEquals(101, columns.size());
+		// Scan a single column
+		int[] octaneLevels = columns.octaneLevelColumn();
+		long sum = 0;
+		for (int i = 0; i < columns.size(); ++i) {
+			sum += octaneLevels[i];
+		}
+		assertEquals(99 * 100 / 2 + 1000, sum);
+		// Iterate over the rows
+		int automaticCount = 0;
+		for (BeanImplementations.GasolineCar_impl.Columns.Cursor cursor = columns.cursor(); cursor.next();) {
+			if (cursor.isAutomatic()) {
+				++automaticCount;
+			}
+		}
+		assertEquals(51, automaticCount);
+		// Copy rows back to beans
+		assertEquals("make7", columns.cursor(7).getMake());
+		assertEquals(gasCar, columns.get(100));
+		assertTrue(columns.get(100) instanceof BeanImplementations.GasolineCar_impl);
+		columns.clear();
+		assertEquals(0, columns.size());
+		assertNull(columns.makeColumn()[0]);
+		// New rows do not keep the values of cleared ones
+		GasolineCar added = columns.add();
+		assertEquals(0, added.getOctaneLevel());
+		assertNull(added.getMake());
+		columns.clear();
+		// Lazy defaults apply to rows as well
+		BeanImplementations.Playlist_impl.Columns playlists = new BeanImplementations.Playlist_impl.Columns();
+		Playlist playlist = playlists.add();
+		playlist.getTracks().add("intro");
+		assertEquals(Arrays.asList("intro"), playlists.cursor(0).getTracks());
+		assertEquals(playlists.get(0), playlist);
+		try {
+			columns.cursor(0);
+			fail("row out of range not detected");
+		} catch (IndexOutOfBoundsException e) {
+		}
+		// Immutable beans
+		BeanImplementations.TaggedMoney_impl.Columns moneyColumns = new BeanImplementations.TaggedMoney_impl.Columns();
+		TaggedMoney tagged = BeanImplementations.TaggedMoney_impl.builder().amount(5).currency("USD").build();
+		moneyColumns.add(tagged);
+		Money changed = moneyColumns.cursor(0).withAmount(6);
+		assertEquals(6, changed.getAmount());
+		assertEquals(5, moneyColumns.cursor(0).getAmount());
+		assertEquals(tagged, moneyColumns.get(0));
+	}
+
+	@Test
+	public void testAbstractProvider() {
+		// Hand-written providers implement only the basic methods
+		BeanProvider<Car> provider = new AbstractBeanProvider<Car>() {
+			@Override
+			public Class<Car> getBeanInterface() {
+				return Car.class;
+			}
+
+			@Override
+			public Car createInstance() {
+				return BeanImplementations.newCar();
+			}
+		};
+		Car[] cars = new Car[3];
+		provider.createInstances(cars, 1, 3);
+		assertNull(cars[0]);
+		assertNotNull(cars[2]);
+		List<Car> carList = new ArrayList<>();
+		provider.createInstances(carList, 2);
+		assertEquals(2, carList.size());
+		Car car = provider.acquire();
+		provider.release(car);
+		assertNotSame(car, provider.acquire());
+		try {
+			provider.getAccessor();
+			fail();
+		} catch (UnsupportedOperationException e) {
+			// Expected
+		}
+	}
+
+	@Test
+	public void testPooling() {
+		BeanProvider<ExpressParcel> provider = BeanFactory.getInstance().providerFor(ExpressParcel.class);
+		ExpressParcel parcel = provider.acquire();
+		parcel.withLabel("fragile").setWeight(2.5);
+		parcel.setPriority(1);
+		int emptyHashCode = provider.createInstance().hashCode();
+		assertNotEquals(emptyHashCode, parcel.hashCode());
+		// Released beans are reset, including the fields of the base implementation and the hash code
+		provider.release(parcel);
+		assertNull(parcel.getLabel());
+		assertEquals(0, parcel.getWeight(), 0);
+		assertEquals(0, parcel.getPriority());
+		assertEquals(emptyHashCode, parcel.hashCode());
+		assertSame(parcel, provider.acquire());
+		assertNotSame(parcel, provider.acquire());
+		// Beans of other classes are not pooled
+		BeanProvider<Parcel> baseProvider = BeanFactory.getInstance().providerFor(Parcel.class);
+		baseProvider.release(parcel);
+		assertFalse(baseProvider.acquire() instanceof ExpressParcel);
+		BeanProvider<Car> carProvider = BeanFactory.getInstance().providerFor(Car.class);
+		Car car = carProvider.acquire();
+		carProvider.release(car);
+		assertNotSame(car, carProvider.acquire());
+		// Immutable beans cannot be pooled
+		assertNull(BeanFactory.getInstance().createBean(BadPooledBean.class));
+		// Beans are pooled exactly when their bases are, so that reset() clears every field
+		assertNull(BeanFactory.getInstance().createBean(BadUnpooledBean.class));
+	}
+
+	@Test
+	public void testArena() {
+		List<Parcel> parcels = new ArrayList<>();
+		try (BeanArena arena = new BeanArena()) {
+			for (int i = 0; i < 100; ++i) {
+				Parcel parcel = arena.create(Parcel.class);
+				parcel.setWeight(i);
+				parcels.add(parcel);
+			}
+			assertNotNull(arena.create(Car.class));
+			assertNull(arena.create(BadPooledBean.class));
+			assertEquals(101, arena.size());
+		}
+		for (Parcel parcel : parcels) {
+			assertEquals(0, parcel.getWeight(), 0);
+		}
+		// The released beans are reused by the next batch
+		BeanArena arena = new BeanArena();
+		Parcel reused = arena.create(Parcel.class);
+		assertSame(parcels.get(parcels.size() - 1), reused);
+		arena.releaseAll();
+		assertEquals(0, arena.size());
+	}
+
+	@Test
+	public void testCopies() {
+		BeanImplementations.GasolineCar_impl gasCar = (BeanImplementations.GasolineCar_impl) BeanImplementations
+				.newGasolineCar();
+		gasCar.withMake("Audi").withOwners(new String[] { "a", "b" }).setAutomatic(true);
+		gasCar.setOctaneLevel(95);
+		// Shallow copies share arrays, deep copies do not
+		BeanImplementations.GasolineCar_impl shallow = gasCar.shallowCopy();
+		BeanImplementations.GasolineCar_impl deep = gasCar.deepCopy();
+		assertEquals(gasCar, shallow);
+		assertEquals(gasCar, deep);
+		assertSame(gasCar.getOwners(), shallow.getOwners());
+		assertNotSame(gasCar.getOwners(), deep.getOwners());
+		// Copies keep the implementation class through the base implementation
+		Car car = gasCar;
+		assertTrue(((BeanImplementations.Car_impl) car).deepCopy() instanceof GasolineCar);
+		// Copy from a bean of the same implementation and from another one
+		BeanImplementations.GasolineCar_impl target = new BeanImplementations.GasolineCar_impl();
+		target.copyFrom(gasCar);
+		assertEquals(gasCar, target);
+		BeanImplementations.GasolineCar_impl.Columns columns = new BeanImplementations.GasolineCar_impl.Columns();
+		columns.add(gasCar);
+		target = new BeanImplementations.GasolineCar_impl();
+		target.copyFrom(columns.cursor(0));
+		assertEquals(gasCar, target);
+		// Nested beans are copied deeply
+		BeanImplementations.Trip_impl trip = new BeanImplementations.Trip_impl();
+		trip.setCar(gasCar);
+		trip.setDestination(createCoordinates());
+		BeanImplementations.Trip_impl tripCopy = trip.deepCopy();
+		assertEquals(trip, tripCopy);
+		assertNotSame(trip.getCar(), tripCopy.getCar());
+		assertNotSame(trip.getDestination().getChecksum(), tripCopy.getDestination().getChecksum());
+		assertSame(trip.getCar(), trip.shallowCopy().getCar());
+		// The cached hash code is not copied
+		Coordinates coordinates = createCoordinates();
+		int hashCode = coordinates.hashCode();
+		BeanImplementations.Coordinates_impl coordinatesCopy = new BeanImplementations.Coordinates_impl();
+		coordinatesCopy.hashCode();
+		coordinatesCopy.copyFrom(coordinates);
+		assertEquals(hashCode, coordinatesCopy.hashCode());
+		// Immutable beans
+		TaggedMoney tagged = BeanImplementations.TaggedMoney_impl.builder().amount(5).currency("USD")
+				.tags(new String[] { "tip" }).build();
+		TaggedMoney taggedCopy = ((BeanImplementations.TaggedMoney_impl) tagged).deepCopy();
+		assertEquals(tagged, taggedCopy);
+		assertNotSame(tagged.getTags(), taggedCopy.getTags());
+	}
+
+	@Test
+	public void testAccessors() {
+		BeanAccessor<GasolineCar> accessor = BeanFactory.getInstance().providerFor(GasolineCar.class).getAccessor();
+		assertEquals(GasolineCar.class, accessor.getBeanInterface());
+		assertEquals(5, accessor.getPropertyCount());
+		// Base properties first
+		assertEquals("automatic", accessor.getPropertyName(0));
+		assertEquals("octaneLevel", accessor.getPropertyName(4));
+		assertEquals(String[].class, accessor.getPropertyType(accessor.indexOf("owners")));
+		for (int i = 0; i < accessor.getPropertyCount(); ++i) {
+			assertEquals(i, accessor.indexOf(accessor.getPropertyName(i)));
+		}
+		assertEquals(-1, accessor.indexOf("model"));
+		assertEquals(-1, accessor.indexOf(""));
+		// Indexed and primitive access
+		GasolineCar gasCar = BeanImplementations.newGasolineCar();
+		int make = accessor.indexOf("make");
+		int octaneLevel = accessor.indexOf("octaneLevel");
+		accessor.set(gasCar, make, "Audi");
+		accessor.setInt(gasCar, octaneLevel, 95);
+		accessor.setBoolean(gasCar, accessor.indexOf("automatic"), true);
+		assertEquals("Audi", gasCar.getMake());
+		assertEquals(95, gasCar.getOctaneLevel());
+		assertTrue(gasCar.isAutomatic());
+		assertEquals(95, accessor.getInt(gasCar, octaneLevel));
+		assertEquals(95, accessor.get(gasCar, octaneLevel));
+		assertEquals("Audi", accessor.get(gasCar, make));
+		try {
+			accessor.get(gasCar, 5);
+			fail("bad index not detected");
+		} catch (IndexOutOfBoundsException e) {
+		}
+		try {
+			accessor.set(gasCar, make, 5);
+			fail("bad type not detected");
+		} catch (ClassCastException e) {
+		}
+		// Map view
+		Map<String, Object> map = accessor.asMap(gasCar);
+		assertEquals(5, map.size());
+		assertEquals("Audi", map.get("make"));
+		assertNull(map.get("model"));
+		assertEquals("Audi", map.put("make", "BMW"));
+		assertEquals("BMW", gasCar.getMake());
+		Map<String, Object> copy = new HashMap<>(map);
+		assertEquals(copy, map);
+		assertEquals(95, copy.get("octaneLevel"));
+		// Immutable beans are read only
+		BeanAccessor<Money> moneyAccessor = BeanFactory.getInstance().providerFor(Money.class).getAccessor();
+		Money price = BeanImplementations.Money_impl.builder().amount(100).currency("EUR").build();
+		assertEquals(100, moneyAccessor.getLong(price, moneyAccessor.indexOf("amount")));
+		assertFalse(moneyAccessor.isWritable(0));
+		try {
+			moneyAccessor.asMap(price).put("currency", "USD");
+			fail("immutable bean modified");
+		} catch (UnsupportedOperationException e) {
+		}
+		// Property names are unique across the hierarchy
+		assertNull(BeanFactory.getInstance().createBean(BadBeanB.class));
+		// Names with equal hash codes
+		assertEquals("aa".hashCode(), "bB".hashCode());
+		BeanAccessor<HashCollisionBean> collisionAccessor = BeanFactory.getInstance()
+				.providerFor(HashCollisionBean.class).getAccessor();
+		assertEquals(0, collisionAccessor.indexOf("aa"));
+		assertEquals(1, collisionAccessor.indexOf("bB"));
+		assertEquals(-1, collisionAccessor.indexOf("BB"));
+	}
+
+	@Test
+	public void testPerfectHash() {
+		List<String> names = new ArrayList<>();
+		for (int i = 0; i < 1000; ++i) {
+			names.add("property" + i);
+		}
+		names.add("aa");
+		names.add("bB");
+		PerfectHash hash = PerfectHash.of(names);
+		assertNotNull(hash);
+		// At most 4 slots per name
+		assertTrue(hash.getSlots().split(",").length <= 4 * names.size());
+		// Names that all share a hash code cannot be told apart by buckets, the search gives up
+		List<String> colliding = new ArrayList<>(Arrays.asList(""));
+		for (int i = 0; i < 10; ++i) {
+			List<String> longer = new ArrayList<>();
+			for (String name : colliding) {
+				longer.add(name + "Aa");
+				longer.add(name + "BB");
+			}
+			colliding = longer;
+		}
+		assertNull(PerfectHash.of(colliding));
+	}
+
+	@Test
+	public void testDirtyTracking() {
+		BeanAccessor<SavingsAccount> accessor = BeanFactory.getInstance().providerFor(SavingsAccount.class)
+				.getAccessor();
+		SavingsAccount account = BeanImplementations.newSavingsAccount();
+		DirtyTrackingBean tracking = (DirtyTrackingBean) account;
+		assertFalse(tracking.isDirty());
+		assertEquals(-1, tracking.nextDirtyProperty(0));
+		// Setters and chain setters of all the levels mark their properties
+		account.withBalance(100).setOwner("philip");
+		account.setRate(0.5);
+		assertTrue(tracking.isDirty());
+		assertTrue(tracking.isDirty(accessor.indexOf("balance")));
+		assertArrayEquals(new int[] { accessor.indexOf("balance"), accessor.indexOf("owner"), accessor.indexOf("rate") },
+				tracking.dirtyProperties());
+		tracking.clearDirty();
+		assertFalse(tracking.isDirty());
+		accessor.set(account, accessor.indexOf("rate"), 1.5);
+		assertArrayEquals(new int[] { accessor.indexOf("rate") }, tracking.dirtyProperties());
+		assertEquals(accessor.indexOf("rate"), tracking.nextDirtyProperty(0));
+		assertEquals(-1, tracking.nextDirtyProperty(accessor.indexOf("rate") + 1));
+		try {
+			tracking.isDirty(3);
+			fail("bad index not detected");
+		} catch (IndexOutOfBoundsException e) {
+		}
+		// Copying marks the copied properties
+		SavingsAccount target = BeanImplementations.newSavingsAccount();
+		((BeanImplementations.SavingsAccount_impl) target).copyFrom(account);
+		assertEquals(3, ((DirtyTrackingBean) target).dirtyProperties().length);
+		Account base = BeanImplementations.newAccount();
+		base.setOwner("philip");
+		assertArrayEquals(new int[] { 1 }, ((DirtyTrackingBean) base).dirtyProperties());
+		// Beans track changes exactly when their bases do
+		assertNull(BeanFactory.getInstance().createBean(BadTrackingBean.class));
+		assertNull(BeanFactory.getInstance().createBean(BadUntrackedBean.class));
+	}
+
+	@Test
+	public void testCompactLayout() throws Exception {
+		CompactSensor sensor = BeanImplementations.newCompactSensor();
+		sensor.setId(7);
+		sensor.setActive(true);
+		sensor.setMuted(true);
+		sensor.setHeated(Boolean.TRUE);
+		assertTrue(sensor.isActive());
+		assertFalse(sensor.isCalibrated());
+		assertTrue(sensor.isMuted());
+		assertTrue(sensor.isHeated());
+		assertNull(sensor.getCertified());
+		sensor.setCertified(false);
+		assertEquals(Boolean.FALSE, sensor.getCertified());
+		sensor.setActive(false);
+		assertFalse(sensor.isActive());
+		assertTrue(sensor.isMuted());
+		sensor.setCertified(null);
+		assertNull(sensor.getCertified());
+		assertEquals(Boolean.TRUE, BeanFactory.getInstance().providerFor(CompactSensor.class).getAccessor()
+				.asMap(sensor).get("heated"));
+		// Packed properties go through copies, serialization and JSON
+		CompactSensor copy = roundTrip(((BeanImplementations.CompactSensor_impl) sensor).deepCopy());
+		assertEquals(sensor, copy);
+		assertEquals(sensor.hashCode(), copy.hashCode());
+		StringWriter json = new StringWriter();
+		BeanImplementations.CompactSensor_impl.Json.write(sensor, JsonWriter.to(json));
+		assertEquals(sensor, BeanImplementations.CompactSensor_impl.Json.read(JsonReader.from(json.toString())));
+		// Immutable beans
+		Permissions permissions = BeanImplementations.Permissions_impl.builder().read(true).execute(true).share(false)
+				.owner("root").build();
+		Permissions changed = permissions.withRead(false).withShare(null);
+		assertTrue(permissions.isRead());
+		assertTrue(permissions.isExecute());
+		assertFalse(permissions.isWrite());
+		assertEquals(Boolean.FALSE, permissions.getShare());
+		assertFalse(changed.isRead());
+		assertTrue(changed.isExecute());
+		assertNull(changed.getShare());
+		assertEquals(permissions, ((BeanImplementations.Permissions_impl) permissions).deepCopy());
+		// Footprint of a bean with a long and eight booleans, two of them boxed
+		long plainSize = ClassLayout.parseClass(BeanImplementations.Sensor_impl.class).instanceSize();
+		long compactSize = ClassLayout.parseClass(BeanImplementations.CompactSensor_impl.class).instanceSize();
+		assertTrue(plainSize + " -> " + compactSize, compactSize < plainSize);
+	}
+
 	@Test
 	public void testTypeLevelGenericArgs() {
 		assertNull(BeanFactory.getInstance().createBean(GenericBeanA.class));
@@ -128,6 +828,510 @@ public class BeansTest {
 		assertNull(BeanFactory.getInstance().createBean(BadBeanA.class));
 	}
 
+	@Test
+	public void testStaticFactories() {
+		Car car = BeanImplementations.newCar();
+		assertEquals(BeanFactory.getInstance().createBean(Car.class).getClass(), car.getClass());
+		GasolineCar gasCar = BeanImplementations.newGasolineCar();
+		assertTrue(car.getClass().isAssignableFrom(gasCar.getClass()));
+	}
+
+	@Test
+	public void testProviderHandles() {
+		BeanProvider<Person> provider = BeanFactory.getInstance().providerFor(Person.class);
+		assertSame(Person.class, provider.getBeanInterface());
+		assertSame(provider, BeanFactory.getInstance().providerFor(Person.class));
+		assertNotEquals(provider.createInstance(), null);
+		assertNull(BeanFactory.getInstance().providerFor(BadBeanA.class));
+	}
+
+	@Test
+	public void testBulkCreation() {
+		Car[] cars = BeanFactory.getInstance().createBeans(Car.class, 3);
+		assertEquals(3, cars.length);
+		assertNotSame(cars[0], cars[1]);
+		assertEquals(BeanImplementations.Car_impl.class, cars[2].getClass());
+		assertNull(BeanFactory.getInstance().createBeans(BadBeanA.class, 3));
+		Person[] people = new Person[4];
+		assertTrue(BeanFactory.getInstance().createBeans(Person.class, people));
+		assertNotNull(people[3]);
+		List<Object> beans = new ArrayList<>();
+		beans.add("first");
+		assertTrue(BeanFactory.getInstance().createBeans(Person.class, beans, 2));
+		assertEquals(3, beans.size());
+		assertTrue(beans.get(2) instanceof Person);
+		BeanProvider<Car> provider = BeanFactory.getInstance().providerFor(Car.class);
+		provider.createInstances(cars, 1, 2);
+		try {
+			provider.createInstances(cars, 2, 4);
+			fail("bad range not detected");
+		} catch (IndexOutOfBoundsException e) {
+		}
+	}
+
+	@Test
+	public void testComparators() {
+		List<GasolineCar> cars = new ArrayList<>();
+		for (String make : new String[] { "volvo", null, "audi", "volvo" }) {
+			GasolineCar car = BeanImplementations.newGasolineCar();
+			car.setMake(make);
+			car.setOctaneLevel(cars.size());
+			cars.add(car);
+		}
+		// Lexicographic over base and own properties, nulls first by default
+		Collections.sort(cars, BeanImplementations.GasolineCar_impl.Order.by("make", "octaneLevel").nullsLast());
+		assertEquals("audi", cars.get(0).getMake());
+		assertEquals(3, cars.get(2).getOctaneLevel());
+		assertNull(cars.get(3).getMake());
+		Collections.sort(cars, BeanImplementations.GasolineCar_impl.Order.byMake());
+		assertNull(cars.get(0).getMake());
+		Collections.sort(cars, BeanImplementations.GasolineCar_impl.Order.byOctaneLevel());
+		assertEquals(0, cars.get(0).getOctaneLevel());
+		assertEquals(3, cars.get(3).getOctaneLevel());
+		// Arrays and unknown properties
+		for (String property : new String[] { "owners", "color" }) {
+			try {
+				BeanImplementations.GasolineCar_impl.Order.by(property);
+				fail("bad property not detected");
+			} catch (IllegalArgumentException e) {
+			}
+		}
+		// The natural order, inherited by derived beans
+		Money euros = BeanImplementations.Money_impl.builder().amount(5).currency("EUR").build();
+		Money dollars = BeanImplementations.Money_impl.builder().amount(1).currency("USD").build();
+		TaggedMoney tagged = BeanImplementations.TaggedMoney_impl.builder().amount(3).currency("EUR").build();
+		List<Money> amounts = new ArrayList<>(Arrays.asList(dollars, euros, tagged));
+		Collections.sort(amounts, null);
+		assertEquals(Arrays.asList(tagged, euros, dollars), amounts);
+		assertEquals(0, ((Comparable<Money>) euros).compareTo(euros.withAmount(5)));
+		// Arrays cannot define the natural order
+		assertNull(BeanFactory.getInstance().createBean(BadComparableBean.class));
+	}
+
+	@Test
+	public void testKeyIndex() {
+		// Composite primitive keys, with enough beans to grow the table and collide
+		BeanImplementations.Coordinates_impl.Index index = new BeanImplementations.Coordinates_impl.Index();
+		for (int i = 0; i < 1000; ++i) {
+			Coordinates coordinates = BeanImplementations.newCoordinates();
+			coordinates.setLatitude(i % 100);
+			coordinates = coordinates.withLongitude(i / 100);
+			assertNull(index.put(coordinates));
+		}
+		assertEquals(1000, index.size());
+		assertEquals(5.0, index.get(42, 5).getLongitude(), 0.0);
+		assertNull(index.get(42, 10));
+		// Removal keeps the other beans reachable
+		for (int i = 0; i < 1000; i += 2) {
+			assertNotNull(index.remove(i % 100, i / 100));
+		}
+		assertEquals(500, index.size());
+		for (int i = 0; i < 1000; ++i) {
+			assertEquals(i % 2 == 1, index.containsKey(i % 100, i / 100));
+		}
+		assertEquals(500, index.values().size());
+		// Replacing by a null string key
+		BeanImplementations.Account_impl.Index accounts = new BeanImplementations.Account_impl.Index(2);
+		Account account = BeanImplementations.newAccount();
+		assertNull(accounts.put(account));
+		Account other = BeanImplementations.newAccount();
+		assertSame(account, accounts.put(other));
+		assertSame(other, accounts.get(null));
+		// Keys are inherited
+		SavingsAccount savings = BeanImplementations.newSavingsAccount();
+		savings.setOwner("philip");
+		BeanImplementations.SavingsAccount_impl.Index savingsAccounts = new BeanImplementations.SavingsAccount_impl.Index();
+		savingsAccounts.put(savings);
+		assertSame(savings, savingsAccounts.get("philip"));
+		accounts.clear();
+		assertTrue(accounts.isEmpty());
+	}
+
+	@Test
+	public void testConcurrentBeans() throws Exception {
+		assertTrue(Modifier.isVolatile(BeanImplementations.SharedStats_impl.class.getDeclaredField("open").getModifiers()));
+		final BeanImplementations.SharedStats_impl stats = (BeanImplementations.SharedStats_impl) BeanImplementations
+				.newSharedStats();
+		final int threads = 8;
+		final int updates = 10000;
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<Void>> results = new ArrayList<>();
+		for (int t = 0; t < threads; ++t) {
+			results.add(executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					start.await();
+					// All threads see the same default
+					stats.getCounts().put(Thread.currentThread().getName(), 1L);
+					for (int i = 0; i < updates; ++i) {
+						stats.getAndAddHits(1);
+						// Other primitives are stored as the bits of int and long fields
+						stats.getAndAddLoad(0.5);
+						stats.addAndGetScore(0.25f);
+						stats.getAndAddLevel((short) 1);
+						stats.getAndUpdateErrors(new UpdateOperator.OfInt() {
+							@Override
+							public int apply(int v) {
+								return v + 2;
+							}
+						});
+						// Values of boxed properties are compared by equals
+						Double ratio;
+						do {
+							ratio = stats.getRatio();
+						} while (!stats.compareAndSetRatio(ratio != null ? new Double(ratio) : null,
+								ratio != null ? ratio + 1 : 1.0));
+					}
+					return null;
+				}
+			}));
+		}
+		start.countDown();
+		for (Future<Void> result : results) {
+			result.get();
+		}
+		executor.shutdown();
+		assertEquals(threads * updates, stats.getHits());
+		assertEquals(2 * threads * updates, stats.getErrors());
+		assertEquals(threads * updates / 2.0, stats.getLoad(), 0.0);
+		assertEquals(threads * updates / 4.0f, stats.getScore(), 0.0f);
+		assertEquals((short) (threads * updates), stats.getLevel());
+		assertTrue(stats.compareAndSetOpen(false, true));
+		assertFalse(stats.compareAndSetOpen(false, true));
+		assertTrue(stats.isOpen());
+		stats.setGrade('B');
+		assertEquals('B', stats.getAndUpdateGrade(new UpdateOperator.OfChar() {
+			@Override
+			public char apply(char v) {
+				return (char) (v - 1);
+			}
+		}));
+		assertEquals('A', stats.getGrade());
+		assertEquals((byte) 0, stats.getAndSetPriority((byte) -1));
+		assertEquals((byte) 0, stats.addAndGetPriority((byte) 1));
+		assertTrue(stats.compareAndSetLoad(stats.getLoad(), Double.NaN));
+		assertTrue(Double.isNaN(stats.getLoad()));
+		assertEquals(threads * updates, stats.getRatio(), 0.0);
+		assertEquals(threads, stats.getCounts().size());
+		// Generic properties are updated with their declared types
+		Map<String, Long> counts = stats.getAndSetCounts(new HashMap<String, Long>());
+		assertEquals(threads, counts.size());
+		assertTrue(stats.getCounts().isEmpty());
+		// Chain setters and plain setters write the same fields
+		assertEquals(5, stats.withErrors(5).addAndGetErrors(1) - 1);
+		stats.setStatus("open");
+		assertFalse(stats.compareAndSetStatus("closed", "paused"));
+		assertTrue(stats.compareAndSetStatus(new String("open"), "paused"));
+		assertEquals("paused", stats.getAndSetStatus(null));
+		assertNull(stats.getStatus());
+		// Only beans with concurrent bases can be concurrent
+		assertNull(BeanFactory.getInstance().createBean(BadConcurrentBean.class));
+	}
+
+	@Test
+	public void testLazyDefaults() throws Exception {
+		Playlist a = BeanFactory.getInstance().createBean(Playlist.class);
+		// Defaults are created on the first read only
+		Field tracksField = BeanImplementations.Playlist_impl.class.getDeclaredField("tracks");
+		tracksField.setAccessible(true);
+		assertNull(tracksField.get(a));
+		List<String> tracks = a.getTracks();
+		assertTrue(tracks instanceof ArrayList);
+		assertSame(tracks, a.getTracks());
+		assertTrue(a.getRatings() instanceof HashMap);
+		a.setTracks(null);
+		assertNotSame(tracks, a.getTracks());
+		// Properties without defaults stay null
+		assertNull(a.getName());
+		// Unread defaults equal read ones
+		Playlist b = BeanFactory.getInstance().createBean(Playlist.class);
+		assertEquals(a, b);
+		assertEquals(a.hashCode(), b.hashCode());
+		assertEquals(b, a);
+		b.getTracks().add("intro");
+		assertNotEquals(a, b);
+		// Copies of unread defaults get their own instances
+		Playlist c = BeanFactory.getInstance().createBean(Playlist.class);
+		Playlist d = ((BeanImplementations.Playlist_impl) c).shallowCopy();
+		d.getTracks().add("outro");
+		assertTrue(c.getTracks().isEmpty());
+		// Default classes must fit the property types
+		assertNull(BeanFactory.getInstance().createBean(BadDefaultBean.class));
+	}
+
+	@Test
+	public void testStore() throws Exception {
+		Path path = Files.createTempFile("ticks", ".nibs");
+		Path parcelsPath = Files.createTempFile("parcels", ".nibs");
+		try {
+			final int count = 100000;
+			Tick tick = BeanFactory.getInstance().createBean(Tick.class);
+			try (BeanImplementations.Tick_impl.Store store = BeanImplementations.Tick_impl.Store.open(path)) {
+				for (int i = 0; i < count; ++i) {
+					tick.setSymbol(i % 2 == 0 ? "SAP" : null);
+					tick.setPrice(i / 4.0);
+					tick.setVolume(i * 1000L);
+					tick.setSpread(i / 2f);
+					tick.setSequence(i);
+					tick.setVenue((short) i);
+					tick.withSide((char) ('A' + i % 26));
+					tick.setFlags((byte) i);
+					tick.setOpening(i % 3 == 0);
+					assertEquals(i, store.append(tick));
+				}
+				assertEquals(tick, store.get(count - 1));
+				assertEquals(tick, store.record(count - 1));
+				// Records are read and written in place
+				BeanImplementations.Tick_impl.Store.Record record = store.record(42);
+				assertEquals("SAP", record.getSymbol());
+				assertEquals(42, record.getSequence());
+				assertEquals('Q', record.getSide());
+				assertTrue(record.isOpening());
+				record.setPrice(1.5);
+				assertEquals(1.5, store.get(42).getPrice(), 0.0);
+				record.moveTo(43);
+				assertNull(record.getSymbol());
+				try {
+					record.setSymbol("TOO LONG");
+					record.setSymbol("MUCH TOO LONG");
+					fail();
+				} catch (IllegalArgumentException e) {
+					// Expected
+				}
+				assertEquals("TOO LONG", record.getSymbol());
+				store.force();
+			}
+			// The records remain in the file
+			try (BeanImplementations.Tick_impl.Store store = BeanImplementations.Tick_impl.Store.openReadOnly(path)) {
+				assertEquals(count, store.size());
+				BeanImplementations.Tick_impl.Store.Record cursor = store.cursor();
+				long sum = 0;
+				while (cursor.next()) {
+					sum += cursor.getSequence();
+				}
+				assertEquals((long) count * (count - 1) / 2, sum);
+				assertEquals(1.5, store.record(42).getPrice(), 0.0);
+				try {
+					store.record(0).setSequence(1);
+					fail();
+				} catch (ReadOnlyBufferException e) {
+					// Expected
+				}
+			}
+			// Files of other layouts are rejected
+			try {
+				BeanImplementations.Parcel_impl.Store.open(path);
+				fail();
+			} catch (IOException e) {
+				// Expected
+			}
+			// Records of derived beans hold the properties of their bases first
+			assertTrue(BeanImplementations.Parcel_impl.Store.RECORD_SIZE < BeanImplementations.ExpressParcel_impl.Store.RECORD_SIZE);
+			try (BeanImplementations.ExpressParcel_impl.Store store = BeanImplementations.ExpressParcel_impl.Store
+					.open(parcelsPath)) {
+				ExpressParcel parcel = BeanFactory.getInstance().createBean(ExpressParcel.class);
+				parcel.setPriority(3);
+				parcel.withLabel("fragile").setWeight(2.5);
+				store.append(parcel);
+				assertEquals(parcel, store.get(0));
+			}
+			// Even without properties of their own
+			try {
+				BeanImplementations.ReturnedParcel_impl.Store.open(parcelsPath);
+				fail();
+			} catch (IOException e) {
+				// Expected
+			}
+			// Immutable records change into new beans
+			Files.delete(parcelsPath);
+			try (BeanImplementations.Money_impl.Store store = BeanImplementations.Money_impl.Store.open(parcelsPath)) {
+				store.append(new BeanImplementations.Money_impl(100, "EUR"));
+				assertEquals(new BeanImplementations.Money_impl(5, "EUR"), store.record(0).withAmount(5));
+				assertEquals(100, store.get(0).getAmount());
+			}
+			// Only strings have lengths
+			assertNull(BeanFactory.getInstance().createBean(BadMaxLengthBean.class));
+		} finally {
+			Files.delete(path);
+			Files.deleteIfExists(parcelsPath);
+		}
+	}
+
+	@Test
+	public void testFactoryMetrics() throws Exception {
+		// Enabled through the surefire configuration
+		BeanFactoryMetrics metrics = BeanFactory.getInstance().getMetrics();
+		assertTrue(metrics.isEnabled());
+		BeanFactoryMetrics.Snapshot before = metrics.snapshot();
+		BeanFactory.getInstance().createBean(Car.class);
+		BeanFactory.getInstance().createBeans(Car.class, 3);
+		BeanFactory.getInstance().createBeans(Person.class, new Person[2]);
+		assertNull(BeanFactory.getInstance().createBean(BadBeanA.class));
+		BeanFactoryMetrics.Snapshot after = metrics.snapshot();
+		assertEquals(6, after.getCreatedBeans() - before.getCreatedBeans());
+		assertEquals(4, count(after.getCreatedBeansByInterface(), Car.class)
+				- count(before.getCreatedBeansByInterface(), Car.class));
+		assertEquals(1, count(after.getLookupMissesByInterface(), BadBeanA.class)
+				- count(before.getLookupMissesByInterface(), BadBeanA.class));
+		assertTrue(after.getProviderLoads() > 0);
+		// The same values over JMX
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(BeanFactoryMetrics.OBJECT_NAME);
+		assertTrue((Long) server.getAttribute(name, "CreatedBeans") >= after.getCreatedBeans());
+		assertTrue((Long) server.getAttribute(name, "LookupMisses") >= after.getLookupMisses());
+	}
+
+	@Test
+	public void testLookupCaching() throws Exception {
+		BeanFactory factory = BeanFactory.getInstance();
+		BeanFactoryMetrics metrics = factory.getMetrics();
+		assertNull(factory.providerFor(BadBeanA.class));
+		// A miss is remembered, it is counted but not looked up again
+		BeanFactoryMetrics.Snapshot before = metrics.snapshot();
+		assertNull(factory.providerFor(BadBeanA.class));
+		BeanFactoryMetrics.Snapshot after = metrics.snapshot();
+		assertEquals(before.getProviderLoads(), after.getProviderLoads());
+		assertEquals(1, after.getLookupMisses() - before.getLookupMisses());
+		// Another context class loader is looked up once on its own
+		Thread thread = Thread.currentThread();
+		ClassLoader contextLoader = thread.getContextClassLoader();
+		try (URLClassLoader otherLoader = new URLClassLoader(new URL[0], BeansTest.class.getClassLoader())) {
+			thread.setContextClassLoader(otherLoader);
+			assertNull(factory.providerFor(BadBeanA.class));
+			assertEquals(after.getProviderLoads() + 1, metrics.snapshot().getProviderLoads());
+			assertNull(factory.providerFor(BadBeanA.class));
+			assertEquals(after.getProviderLoads() + 1, metrics.snapshot().getProviderLoads());
+			assertNotNull(factory.providerFor(Car.class));
+		} finally {
+			thread.setContextClassLoader(contextLoader);
+		}
+		// A provider that becomes visible later is found only through context class loaders that were not looked
+		// up yet
+		Path dir = Files.createTempDirectory("providers");
+		Path resource = dir.resolve(BeanProviderService.PROVIDER_RESOURCE_PREFIX + BadBeanB.class.getName());
+		try (URLClassLoader lateLoader = new URLClassLoader(new URL[] { dir.toUri().toURL() },
+				BeansTest.class.getClassLoader());
+				URLClassLoader newLoader = new URLClassLoader(new URL[] { dir.toUri().toURL() },
+						BeansTest.class.getClassLoader())) {
+			thread.setContextClassLoader(lateLoader);
+			assertNull(factory.providerFor(BadBeanB.class));
+			Files.createDirectories(resource.getParent());
+			Files.write(resource, LateProvider.class.getName().getBytes(StandardCharsets.UTF_8));
+			assertNull(factory.providerFor(BadBeanB.class));
+			thread.setContextClassLoader(newLoader);
+			assertEquals(LateProvider.class, factory.providerFor(BadBeanB.class).getClass());
+			thread.setContextClassLoader(contextLoader);
+			assertNull(factory.providerFor(BadBeanB.class));
+		} finally {
+			thread.setContextClassLoader(contextLoader);
+			for (Path path = resource; !path.equals(dir.getParent()); path = path.getParent()) {
+				Files.deleteIfExists(path);
+			}
+		}
+	}
+
+	public static class LateProvider extends AbstractBeanProvider<BadBeanB> {
+		@Override
+		public Class<BadBeanB> getBeanInterface() {
+			return BadBeanB.class;
+		}
+
+		@Override
+		public BadBeanB createInstance() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private static long count(Map<String, Long> counts, Class<?> beanInterface) {
+		Long count = counts.get(beanInterface.getName());
+		return count != null ? count : 0;
+	}
+
+	@Test
+	public void testLazyProviderLoading() throws Exception {
+		// Load the beans again in a class loader of their own, which records the classes it defines
+		final String beansPackage = Car.class.getPackage().getName();
+		final List<String> loadedClasses = new ArrayList<>();
+		URL classesUrl = Car.class.getProtectionDomain().getCodeSource().getLocation();
+		try (URLClassLoader loader = new URLClassLoader(new URL[] { classesUrl }, getClass().getClassLoader()) {
+			@Override
+			protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+				synchronized (getClassLoadingLock(name)) {
+					if (!name.startsWith(beansPackage)) {
+						return super.loadClass(name, resolve);
+					}
+					Class<?> cls = findLoadedClass(name);
+					if (cls == null) {
+						cls = findClass(name);
+						loadedClasses.add(name);
+					}
+					return cls;
+				}
+			}
+		}) {
+			Class<?> carInterface = loader.loadClass(Car.class.getName());
+			Object car = BeanFactory.getInstance().createBean(carInterface);
+			assertTrue(carInterface.isInstance(car));
+			assertNotSame(Car.class, carInterface);
+			// Only the provider of the requested bean was loaded
+			String implementations = BeanImplementations.class.getName();
+			assertTrue(loadedClasses.contains(implementations + "$Car_impl$Provider"));
+			assertFalse(loadedClasses.contains(implementations + "$Person_impl$Provider"));
+			assertFalse(loadedClasses.contains(implementations + "$ProviderService"));
+		}
+	}
+
+	@Test
+	public void testConcurrentLookup() throws Exception {
+		final int threadCount = 16;
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			List<Future<BeanFactory>> results = new ArrayList<>();
+			for (int i = 0; i < threadCount; ++i) {
+				results.add(executor.submit(new Callable<BeanFactory>() {
+					@Override
+					public BeanFactory call() throws Exception {
+						start.await();
+						BeanFactory factory = BeanFactory.getInstance();
+						for (int j = 0; j < 1000; ++j) {
+							assertNotNull(factory.createBean(Car.class));
+							assertNull(factory.createBean(BadBeanA.class));
+						}
+						return factory;
+					}
+				}));
+			}
+			start.countDown();
+			for (Future<BeanFactory> result : results) {
+				assertSame(BeanFactory.getInstance(), result.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T roundTrip(T bean) throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(bean);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			return (T) in.readObject();
+		}
+	}
+
+	private static Coordinates createCoordinates() {
+		Coordinates c = BeanImplementations.newCoordinates();
+		c.setLatitude(32.1);
+		c.withLongitude(34.8).setTimestamp(1L << 40);
+		c.setLabel("here");
+		c.setChecksum(new byte[] { 1, 2, 3 });
+		return c;
+	}
+
 	private static Person createPersonBean() {
 		Person person = BeanFactory.getInstance().createBean(Person.class);
 		person.setName(NAME);
@@ -0,0 +1,43 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.example.beans;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.nibeans.NIBean;
+import org.nibeans.NIBeanDefault;
+
+@NIBean
+public interface Playlist {
+
+	String getName();
+
+	void setName(String v);
+
+	@NIBeanDefault(ArrayList.class)
+	List<String> getTracks();
+
+	void setTracks(List<String> v);
+
+	@NIBeanDefault(HashMap.class)
+	Map<String, Integer> getRatings();
+
+	Playlist withRatings(Map<String, Integer> v);
+
+}
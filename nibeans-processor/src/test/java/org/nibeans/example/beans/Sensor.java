@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.example.beans;
+
+import org.nibeans.NIBean;
+
+@NIBean
+public interface Sensor {
+
+	long getId();
+
+	void setId(long v);
+
+	boolean isActive();
+
+	void setActive(boolean v);
+
+	boolean isCalibrated();
+
+	void setCalibrated(boolean v);
+
+	boolean isFaulty();
+
+	void setFaulty(boolean v);
+
+	boolean isOnline();
+
+	void setOnline(boolean v);
+
+	boolean isShared();
+
+	void setShared(boolean v);
+
+	boolean isMuted();
+
+	void setMuted(boolean v);
+
+	boolean isHeated();
+
+	void setHeated(Boolean v);
+
+	Boolean getCertified();
+
+	void setCertified(Boolean v);
+
+}
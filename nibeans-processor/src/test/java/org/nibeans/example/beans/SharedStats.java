@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.example.beans;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.nibeans.NIBean;
+import org.nibeans.NIBeanDefault;
+
+@NIBean(concurrent = true)
+public interface SharedStats {
+
+	long getHits();
+
+	void setHits(long v);
+
+	int getErrors();
+
+	SharedStats withErrors(int v);
+
+	String getStatus();
+
+	void setStatus(String v);
+
+	Double getRatio();
+
+	void setRatio(Double v);
+
+	@NIBeanDefault(ConcurrentHashMap.class)
+	Map<String, Long> getCounts();
+
+	void setCounts(Map<String, Long> v);
+
+	boolean isOpen();
+
+	void setOpen(boolean v);
+
+	double getLoad();
+
+	void setLoad(double v);
+
+	float getScore();
+
+	void setScore(float v);
+
+	short getLevel();
+
+	void setLevel(short v);
+
+	char getGrade();
+
+	void setGrade(char v);
+
+	byte getPriority();
+
+	void setPriority(byte v);
+
+}
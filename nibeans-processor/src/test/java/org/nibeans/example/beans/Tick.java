@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.example.beans;
+
+import org.nibeans.NIBean;
+import org.nibeans.NIBeanMaxLength;
+
+@NIBean
+public interface Tick {
+
+	@NIBeanMaxLength(8)
+	String getSymbol();
+
+	void setSymbol(String v);
+
+	double getPrice();
+
+	void setPrice(double v);
+
+	long getVolume();
+
+	void setVolume(long v);
+
+	float getSpread();
+
+	void setSpread(float v);
+
+	int getSequence();
+
+	void setSequence(int v);
+
+	short getVenue();
+
+	void setVenue(short v);
+
+	char getSide();
+
+	Tick withSide(char v);
+
+	byte getFlags();
+
+	void setFlags(byte v);
+
+	boolean isOpening();
+
+	void setOpening(boolean v);
+
+}
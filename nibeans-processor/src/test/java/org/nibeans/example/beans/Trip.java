@@ -0,0 +1,51 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.example.beans;
+
+import org.nibeans.NIBean;
+
+@NIBean
+public interface Trip {
+
+	enum Purpose {
+		BUSINESS, LEISURE
+	}
+
+	Car getCar();
+
+	void setCar(Car v);
+
+	Purpose getPurpose();
+
+	void setPurpose(Purpose v);
+
+	Double getDistance();
+
+	void setDistance(Double v);
+
+	char getCategory();
+
+	void setCategory(char v);
+
+	float[] getSpeeds();
+
+	void setSpeeds(float[] v);
+
+	Coordinates getDestination();
+
+	void setDestination(Coordinates v);
+
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Test;
+import org.nibeans.BeanFactory;
+import org.nibeans.example.isolated.Badge;
+import org.nibeans.example.isolated.Badge_impl;
+import org.nibeans.example.split.Gadget_impl;
+import org.nibeans.example.split.Label_impl;
+import org.nibeans.example.split.Part;
+import org.nibeans.example.split.device.Phone;
+import org.nibeans.example.split.device.Phone_impl;
+import org.nibeans.example.split.device.PriceLabel;
+import org.nibeans.example.split.device.PriceLabel_impl;
+import org.nibeans.internal.BeanAccessor;
+import org.nibeans.json.JsonReader;
+import org.nibeans.json.JsonWriter;
+
+public class SplitBeansTest {
+
+	@Test
+	public void testSplitClasses() throws IOException {
+		// Top-level classes next to their interfaces, found through their own index
+		Phone phone = BeanFactory.getInstance().createBean(Phone.class);
+		assertEquals(Phone_impl.class, phone.getClass());
+		assertNull(Phone_impl.class.getEnclosingClass());
+		assertEquals(Phone.class.getPackage(), Phone_impl.class.getPackage());
+		assertEquals(Gadget_impl.class, Phone_impl.class.getSuperclass());
+		assertEquals(Phone_impl.class, Phone_impl.newPhone().getClass());
+		// Properties of the base class in the other package, with packed booleans
+		phone.setName("P1");
+		phone.setWireless(true);
+		phone.setCertified(Boolean.FALSE);
+		phone.setPart(BeanFactory.getInstance().createBean(Part.class).withCode("B7").withWeight(12));
+		phone.setNumber("555");
+		phone.setContacts(new long[] { 1, 2 });
+		Phone copy = (Phone) ((Phone_impl) phone).deepCopy();
+		assertEquals(phone, copy);
+		assertNull(copy.getWaterproof());
+		assertEquals(Boolean.FALSE, copy.getCertified());
+		// Codecs and containers reach the base properties too
+		StringWriter text = new StringWriter();
+		Phone_impl.Json.write(phone, JsonWriter.to(text));
+		assertEquals(phone, Phone_impl.Json.read(JsonReader.from(text.toString())));
+		copy.setName("P2");
+		Phone_impl.Patch.applyPatch(phone, Phone_impl.Patch.diff(phone, copy));
+		assertEquals(copy, phone);
+		Phone_impl.Columns columns = new Phone_impl.Columns();
+		columns.add(phone);
+		assertEquals(phone, columns.get(0));
+		BeanAccessor<Phone> accessor = BeanFactory.getInstance().providerFor(Phone.class).getAccessor();
+		assertEquals("P2", accessor.get(phone, accessor.indexOf("name")));
+		// Immutable beans with a base in the other package
+		PriceLabel label = BeanFactory.getInstance().createBean(PriceLabel.class).withPrice(9.5);
+		PriceLabel renamed = (PriceLabel) label.withText("sale");
+		assertEquals(9.5, renamed.getPrice(), 0);
+		assertEquals("sale", renamed.getText());
+		assertNull(label.getText());
+		assertEquals(renamed, PriceLabel_impl.builder().text("sale").price(9.5).build());
+		assertEquals(renamed.hashCode(), PriceLabel_impl.builder().text("sale").price(9.5).build().hashCode());
+	}
+
+	@Test
+	public void testIncrementalClasses() throws IOException {
+		// Found through the resource of the single bean, extends a bean of another compilation
+		Badge badge = BeanFactory.getInstance().createBean(Badge.class);
+		assertEquals(Badge_impl.class, badge.getClass());
+		assertEquals(Label_impl.class, Badge_impl.class.getSuperclass());
+		assertNotNull(getClass().getClassLoader().getResource("META-INF/nibeans/beans/" + Badge.class.getName()));
+		badge = ((Badge) badge.withText("guest")).withHolder("Alice")
+				.withChip(BeanFactory.getInstance().createBean(Part.class).withCode("C1"));
+		assertEquals(badge, Badge_impl.builder().text("guest").holder("Alice").chip(badge.getChip()).build());
+		// Codecs of the base bean and of the bean property
+		StringWriter text = new StringWriter();
+		Badge_impl.Json.write(badge, JsonWriter.to(text));
+		Badge read = Badge_impl.Json.read(JsonReader.from(text.toString()));
+		assertEquals(badge, read);
+		assertEquals("C1", read.getChip().getCode());
+		assertEquals(badge, Badge_impl.Patch.applyPatch(BeanFactory.getInstance().createBean(Badge.class),
+				Badge_impl.Patch.diff(null, badge)));
+	}
+
+}
@@ -0,0 +1,43 @@
+/**
+ * Copyright (C) 2015 opendevz (opendevz@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nibeans.example.split;
+
+import org.nibeans.NIBean;
+
+@NIBean(compactLayout = true)
+public interface Gadget {
+
+	String getName();
+
+	void setName(String v);
+
+	boolean isWireless();
+
+	void setWireless(boolean v);
+
+	Boolean getCertified();
+
+	void setCertified(Boolean v);
+
+	Boolean getWaterproof();
+
+	void setWaterproof(Boolean v);
+
+	Part getPart();
+
+	void setPart(Part v);
+
+}